@@ -0,0 +1,107 @@
+package com.finbasics.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs the benchmarks with the GC/allocation profiler attached and compares
+ * the scores with the checked-in baseline (benchmarks/baseline.csv).
+ *
+ * Usual JMH command-line options are accepted. Extra flags:
+ * --update-baseline  copy this run's results over the baseline.
+ * A benchmark more than finbasics.bench.tolerance (default 0.10) worse than
+ * its baseline score is flagged, and the run exits with status 1.
+ */
+public class BenchmarkMain {
+
+    private static final Path RESULT = Paths.get("target", "jmh-result.csv");
+    private static final Path BASELINE = Paths.get(System.getProperty("finbasics.bench.baseline", "baseline.csv"));
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("finbasics.bench.tolerance", "0.10"));
+
+    public static void main(String[] args) throws Exception {
+        boolean updateBaseline = false;
+        List<String> jmhArgs = new ArrayList<>();
+        for (String a : args) {
+            if ("--update-baseline".equals(a)) updateBaseline = true;
+            else jmhArgs.add(a);
+        }
+
+        Files.createDirectories(RESULT.getParent());
+        Options opts = new OptionsBuilder()
+                .parent(new CommandLineOptions(jmhArgs.toArray(new String[0])))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.CSV)
+                .result(RESULT.toString())
+                .build();
+        Collection<RunResult> results = new Runner(opts).run();
+
+        if (updateBaseline) {
+            Files.copy(RESULT, BASELINE, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Baseline updated: " + BASELINE.toAbsolutePath());
+        } else if (Files.exists(BASELINE)) {
+            if (compare(results) > 0) System.exit(1);
+        } else {
+            System.out.println("No baseline at " + BASELINE.toAbsolutePath() + " (run with --update-baseline to record one)");
+        }
+    }
+
+    /** Print each result against its baseline score; returns the number of regressions. */
+    private static int compare(Collection<RunResult> results) throws IOException {
+        Map<String, Double> baseline = readScores(BASELINE);
+        int regressions = 0;
+        System.out.println();
+        System.out.println("=== vs baseline ===");
+        for (RunResult r : results) {
+            String name = r.getParams().getBenchmark();
+            Double before = baseline.get(name);
+            if (before == null || before == 0.0) {
+                System.out.printf(Locale.ROOT, "%-70s %12s -> %12.3f  (not in baseline)%n",
+                        name, "-", r.getPrimaryResult().getScore());
+                continue;
+            }
+            double now = r.getPrimaryResult().getScore();
+            double change = (now - before) / before;
+            // Throughput: higher is better. Time modes: lower is better.
+            boolean worse = r.getParams().getMode().shortLabel().equals("thrpt")
+                    ? change < -TOLERANCE : change > TOLERANCE;
+            if (worse) regressions++;
+            System.out.printf(Locale.ROOT, "%-70s %12.3f -> %12.3f %+7.1f%%%s%n",
+                    name, before, now, change * 100, worse ? "  REGRESSION" : "");
+        }
+        if (regressions > 0) {
+            System.out.printf(Locale.ROOT, "%d benchmark(s) regressed by more than %.0f%%%n", regressions, TOLERANCE * 100);
+        }
+        return regressions;
+    }
+
+    // JMH CSV: "Benchmark","Mode","Threads","Samples","Score",... ; secondary (gc.*) rows are skipped.
+    private static Map<String, Double> readScores(Path csv) throws IOException {
+        Map<String, Double> scores = new HashMap<>();
+        List<String> lines = Files.readAllLines(csv);
+        for (int i = 1; i < lines.size(); i++) {
+            String[] cols = lines.get(i).split(",");
+            if (cols.length < 5) continue;
+            String name = cols[0].replace("\"", "");
+            if (name.contains(":")) continue;
+            scores.put(name, Double.parseDouble(cols[4].replace("\"", "")));
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,123 @@
+package com.finbasics.bench;
+
+import com.finbasics.model.NewApplication;
+import com.finbasics.model.StatementAnalysis;
+import com.finbasics.persistence.ApplicationRepository;
+import com.finbasics.persistence.Database;
+import com.finbasics.persistence.StatementAnalysisRepository;
+import com.finbasics.service.StatementAnalysisService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Repository insert/find paths against a real on-disk SQLite file in a temp
+ * directory, seeded with {@link #SEED_ROWS} applications and analyses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersistenceBenchmark {
+
+    private static final int SEED_ROWS = 10_000;
+
+    private final ApplicationRepository appRepo = new ApplicationRepository();
+    private final StatementAnalysisRepository saRepo = new StatementAnalysisRepository();
+    private final StatementAnalysisService analysisService = new StatementAnalysisService();
+    private Path dir;
+    private NewApplication app;
+    private final List<Integer> ids = new ArrayList<>();
+    private List<Integer> batchIds;
+    private int hotId;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        dir = Files.createTempDirectory("finbasics-bench");
+        Database.init(dir.resolve("bench.db"));
+
+        app = new NewApplication();
+        app.setBorrowerType("SME");
+        app.setBorrowerName("Bench Co");
+        app.setBorrowerIdNumber("00-0000000");
+        app.setProductType("SME Term Loan");
+        app.setRequestedAmount(250_000);
+
+        for (int i = 0; i < SEED_ROWS; i++) {
+            int id = appRepo.createApplication(app, 1);
+            saRepo.insert(analysisService.buildAutoAnalysis(app, id));
+            ids.add(id);
+        }
+        batchIds = ids.subList(0, 500);
+        hotId = ids.get(0);
+        appRepo.findHeader(hotId);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Database.shutdown();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private int randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    @Benchmark
+    public int insertApplication() throws SQLException {
+        return appRepo.createApplication(app, 1);
+    }
+
+    @Benchmark
+    public Object findHeaderCached() throws SQLException {
+        return appRepo.findHeader(hotId);
+    }
+
+    @Benchmark
+    public Object findHeaderRandom() throws SQLException {
+        // 10k ids over a 1k-entry cache: mostly misses.
+        return appRepo.findHeader(randomId());
+    }
+
+    @Benchmark
+    public StatementAnalysis findAnalysisRandom() throws SQLException {
+        return saRepo.findByApplicationId(randomId());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Object findAnalysesBatch500() throws SQLException {
+        return saRepo.findByApplicationIds(batchIds);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Object findHeadersWithAnalysisBatch500() throws SQLException {
+        return appRepo.findWithAnalysis(batchIds);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object findHeaderRandomContended() throws SQLException {
+        return appRepo.findHeader(randomId());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int insertApplicationContended() throws SQLException {
+        return appRepo.createApplication(app, 1);
+    }
+}
@@ -0,0 +1,119 @@
+package com.finbasics.bench;
+
+import com.finbasics.model.AnalysisColumns;
+import com.finbasics.model.NewApplication;
+import com.finbasics.model.StatementAnalysis;
+import com.finbasics.service.BatchScorer;
+import com.finbasics.service.FinancialCalculator;
+import com.finbasics.service.PolicySnapshot;
+import com.finbasics.service.StatementAnalysisService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory scoring: analysis building, grading, annuity math and batch
+ * re-grading. No database involved.
+ *
+ * State is benchmark-scoped, so the {@code @Threads(4)} variants really share
+ * one policy snapshot, analysis and service between threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScoringBenchmark {
+
+    private static final int BATCH_SIZE = 100_000;
+
+    private final StatementAnalysisService analysisService = new StatementAnalysisService();
+    private NewApplication smeApp;
+    private NewApplication consumerApp;
+    private StatementAnalysis smeAnalysis;
+    private StatementAnalysis consumerAnalysis;
+    private PolicySnapshot policy;
+    private AnalysisColumns columns;
+    private BatchScorer batchScorer;
+
+    @Setup
+    public void setup() {
+        smeApp = new NewApplication();
+        smeApp.setBorrowerType("SME");
+        smeApp.setProductType("SME Term Loan");
+        smeApp.setRequestedAmount(250_000);
+
+        consumerApp = new NewApplication();
+        consumerApp.setBorrowerType("CONSUMER");
+        consumerApp.setProductType("Auto Loan");
+        consumerApp.setRequestedAmount(30_000);
+        consumerApp.setAnnualIncome(85_000.0);
+
+        smeAnalysis = analysisService.buildAutoAnalysis(smeApp, 1);
+        consumerAnalysis = analysisService.buildAutoAnalysis(consumerApp, 2);
+        policy = PolicySnapshot.defaults();
+
+        Random rnd = new Random(42);
+        columns = new AnalysisColumns(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            columns.add(i, rnd.nextBoolean(), rnd.nextDouble() * 3, rnd.nextDouble() * 3, rnd.nextDouble() * 5,
+                    rnd.nextDouble(), rnd.nextBoolean() ? 0 : rnd.nextDouble(), 300 + rnd.nextInt(550));
+        }
+        batchScorer = new BatchScorer();
+    }
+
+    @Benchmark
+    public StatementAnalysis buildAutoAnalysisSme() {
+        return analysisService.buildAutoAnalysis(smeApp, 1);
+    }
+
+    @Benchmark
+    public StatementAnalysis buildAutoAnalysisConsumer() {
+        return analysisService.buildAutoAnalysis(consumerApp, 2);
+    }
+
+    @Benchmark
+    public String overallRiskGrade() {
+        return FinancialCalculator.calculateOverallRiskGrade(smeAnalysis);
+    }
+
+    @Benchmark
+    public int tierSme() {
+        return policy.tier(smeAnalysis);
+    }
+
+    @Benchmark
+    public int tierConsumer() {
+        return policy.tier(consumerAnalysis);
+    }
+
+    @Benchmark
+    public FinancialCalculator.Evaluation evaluationForDisplay() {
+        return FinancialCalculator.evaluateSmeDscr(smeAnalysis.getDscr());
+    }
+
+    @Benchmark
+    public double annuityMonthly() {
+        return StatementAnalysisService.annuityPayment(30_000, 0.079 / 12.0, 60);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public BatchScorer.Result batchScore100k() {
+        return batchScorer.score(policy, columns);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int tierContended() {
+        return policy.tier(smeAnalysis);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public StatementAnalysis buildAutoAnalysisContended() {
+        return analysisService.buildAutoAnalysis(smeApp, 1);
+    }
+}
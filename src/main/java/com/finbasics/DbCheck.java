@@ -1,13 +1,37 @@
 package com.finbasics;
 
+import com.finbasics.persistence.Database;
+import com.finbasics.persistence.QueryStats;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.*;
 
 /**
- * Quick database verification - lists all tables and sample data
+ * Quick database verification - lists all tables and sample data.
+ *
+ * Options:
+ *   --db PATH   database file (default ~/finbasics/finbasics.db)
+ *   --top N     instead, print the N most expensive statements by total time
+ *               from the query stats saved next to the database by the last
+ *               run with -Dfinbasics.db.queryStats=true
  */
 public class DbCheck {
     public static void main(String[] args) throws Exception {
         String dbPath = System.getProperty("user.home") + "/finbasics/finbasics.db";
+        int top = 0;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--db" -> dbPath = args[++i];
+                case "--top" -> top = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+        }
+        if (top > 0) {
+            printTopStatements(Paths.get(dbPath), top);
+            return;
+        }
         String url = "jdbc:sqlite:" + dbPath;
         
         try (Connection c = DriverManager.getConnection(url)) {
@@ -44,4 +68,14 @@ public class DbCheck {
             System.out.println("\n✓ Database is working!");
         }
     }
+
+    private static void printTopStatements(Path dbFile, int top) throws Exception {
+        Path file = Database.queryStatsFile(dbFile);
+        if (!Files.exists(file)) {
+            System.out.println("No query stats at " + file + " - run the app with -Dfinbasics.db.queryStats=true first.");
+            return;
+        }
+        System.out.println("=== TOP " + top + " STATEMENTS (" + file + ") ===");
+        QueryStats.print(QueryStats.load(file), top, System.out);
+    }
 }
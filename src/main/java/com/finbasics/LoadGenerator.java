@@ -0,0 +1,251 @@
+package com.finbasics;
+
+import com.finbasics.metrics.FlightRecording;
+import com.finbasics.model.NewApplication;
+import com.finbasics.model.User;
+import com.finbasics.persistence.Database;
+import com.finbasics.persistence.UserRepository;
+import com.finbasics.service.ApplicationService;
+import com.finbasics.service.ApplicationService.SubmitStage;
+import com.finbasics.service.UserSession;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Headless load generator for the submit pipeline.
+ *
+ * Drives ApplicationService.submitNewApplication with a deterministic (seeded)
+ * mix of SME and consumer applications across every product type, against a
+ * throwaway database file, and prints throughput plus p50/p99/p99.9 latency
+ * per submit stage. Does not start JavaFX.
+ *
+ * Options (all optional, --name=value):
+ *   --threads=8        concurrent submitters
+ *   --duration=30      measured seconds
+ *   --warmup=5         unmeasured seconds before that
+ *   --rate=0           target submits/second across all threads, 0 = as fast as possible
+ *   --seed=42          RNG seed; the same seed yields the same application stream
+ *   --sme-share=0.5    fraction of SME applications
+ *   --db=PATH          database file (default: temp file, deleted afterwards)
+ *
+ * Add -Dfinbasics.jfr.file=load.jfr to capture a flight recording of the run.
+ */
+public class LoadGenerator {
+
+    private static final String[] SME_PRODUCTS = {"SME Term Loan", "Line of Credit", "CRE Mortgage", "Equipment Lease"};
+    private static final String[] CONSUMER_PRODUCTS = {"Personal Loan", "Auto Loan", "Home Equity (HELOC)", "Mortgage"};
+
+    // Requested amount range per product, same order as the arrays above.
+    private static final double[][] SME_AMOUNTS = {{50_000, 2_000_000}, {25_000, 500_000}, {500_000, 10_000_000}, {20_000, 750_000}};
+    private static final double[][] CONSUMER_AMOUNTS = {{2_000, 50_000}, {8_000, 90_000}, {20_000, 250_000}, {100_000, 1_500_000}};
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parse(args);
+        int threads = Integer.parseInt(opts.getOrDefault("threads", "8"));
+        int durationSec = Integer.parseInt(opts.getOrDefault("duration", "30"));
+        int warmupSec = Integer.parseInt(opts.getOrDefault("warmup", "5"));
+        double rate = Double.parseDouble(opts.getOrDefault("rate", "0"));
+        long seed = Long.parseLong(opts.getOrDefault("seed", "42"));
+        double smeShare = Double.parseDouble(opts.getOrDefault("sme-share", "0.5"));
+
+        boolean throwaway = !opts.containsKey("db");
+        Path dbFile = throwaway
+                ? Files.createTempFile("finbasics-load-", ".db")
+                : Paths.get(opts.get("db"));
+
+        FlightRecording.startIfConfigured();
+        Database.init(dbFile);
+        try {
+            User user = new UserRepository().findByUsername("admin");
+            if (user == null) throw new IllegalStateException("Seed user 'admin' not found");
+
+            Run run = new Run(UserSession.local(user), threads, rate, seed, smeShare);
+            System.out.printf("Load: %d threads, %s, seed %d, %.0f%% SME, db %s%n", threads,
+                    rate > 0 ? String.format("%.0f/s target", rate) : "unthrottled", seed, smeShare * 100, dbFile);
+            run.execute(TimeUnit.SECONDS.toNanos(warmupSec), TimeUnit.SECONDS.toNanos(durationSec));
+            run.report(System.out);
+        } finally {
+            Database.shutdown();
+            if (throwaway) {
+                for (String suffix : new String[]{"", "-wal", "-shm"}) {
+                    Files.deleteIfExists(Paths.get(dbFile + suffix));
+                }
+            }
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (String a : args) {
+            if (!a.startsWith("--")) throw new IllegalArgumentException("Unexpected argument: " + a);
+            int eq = a.indexOf('=');
+            if (eq < 0) opts.put(a.substring(2), "true");
+            else opts.put(a.substring(2, eq), a.substring(eq + 1));
+        }
+        return opts;
+    }
+
+    /**
+     * Deterministic application stream: each worker owns a Random seeded from
+     * the run seed and its index.
+     */
+    static NewApplication synthesize(Random rnd, double smeShare, long sequence) {
+        NewApplication app = new NewApplication();
+        boolean sme = rnd.nextDouble() < smeShare;
+        int product = rnd.nextInt(4);
+        double[] range = sme ? SME_AMOUNTS[product] : CONSUMER_AMOUNTS[product];
+        // Log-uniform amounts: small loans are far more common than large ones.
+        double amount = Math.exp(Math.log(range[0]) + rnd.nextDouble() * (Math.log(range[1]) - Math.log(range[0])));
+
+        app.setBorrowerType(sme ? "SME" : "CONSUMER");
+        app.setProductType(sme ? SME_PRODUCTS[product] : CONSUMER_PRODUCTS[product]);
+        app.setRequestedAmount(Math.round(amount / 100.0) * 100.0);
+        if (sme) {
+            String name = "Load Test Co " + sequence;
+            app.setBorrowerName(name);
+            app.setBusinessName(name);
+            app.setBorrowerIdNumber(String.format("%02d-%07d", rnd.nextInt(100), rnd.nextInt(10_000_000)));
+            app.setEin(app.getBorrowerIdNumber());
+            app.setNaicsCode(String.valueOf(100_000 + rnd.nextInt(900_000)));
+            app.setDateEstablishedIso((1980 + rnd.nextInt(44)) + "-01-01");
+            app.setGuarantorName("Guarantor " + sequence);
+        } else {
+            String name = "Load Test Borrower " + sequence;
+            app.setBorrowerName(name);
+            app.setConsumerName(name);
+            app.setBorrowerIdNumber(String.format("%03d-%02d-%04d", rnd.nextInt(1000), rnd.nextInt(100), rnd.nextInt(10_000)));
+            app.setSsn(app.getBorrowerIdNumber());
+            app.setEmployer("Employer " + rnd.nextInt(500));
+            app.setAnnualIncome((double) Math.round(25_000 + rnd.nextDouble() * 225_000));
+        }
+        return app;
+    }
+
+    private static final class Run {
+        private final UserSession session;
+        private final int threads;
+        private final long intervalNanos;
+        private final long seed;
+        private final double smeShare;
+        private final ApplicationService service = new ApplicationService();
+        private final Map<SubmitStage, Recorder> stages = new EnumMap<>(SubmitStage.class);
+        private final Recorder endToEnd = new Recorder();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong sequence = new AtomicLong();
+        private final AtomicLong nextSlot = new AtomicLong();
+        private volatile boolean recording;
+        private volatile boolean stopping;
+        private long measuredNanos;
+
+        Run(UserSession session, int threads, double rate, long seed, double smeShare) {
+            this.session = session;
+            this.threads = threads;
+            this.intervalNanos = rate > 0 ? (long) (1e9 / rate) : 0;
+            this.seed = seed;
+            this.smeShare = smeShare;
+            for (SubmitStage s : SubmitStage.values()) stages.put(s, new Recorder());
+            service.setStageListener((stage, nanos) -> {
+                if (recording) stages.get(stage).record(nanos);
+            });
+        }
+
+        void execute(long warmupNanos, long durationNanos) throws InterruptedException {
+            nextSlot.set(System.nanoTime());
+            List<Thread> workers = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                int index = i;
+                Thread t = new Thread(() -> work(index), "load-" + i);
+                t.setDaemon(true);
+                workers.add(t);
+                t.start();
+            }
+            TimeUnit.NANOSECONDS.sleep(warmupNanos);
+            recording = true;
+            long start = System.nanoTime();
+            TimeUnit.NANOSECONDS.sleep(durationNanos);
+            recording = false;
+            measuredNanos = System.nanoTime() - start;
+            stopping = true;
+            for (Thread t : workers) t.join();
+        }
+
+        private void work(int index) {
+            Random rnd = new Random(seed * 31 + index);
+            while (!stopping) {
+                long intended = System.nanoTime();
+                if (intervalNanos > 0) {
+                    // Fixed schedule: latency counts from the intended start so a
+                    // slow submit is not hidden by the ones queued behind it.
+                    intended = nextSlot.getAndAdd(intervalNanos);
+                    long wait;
+                    while ((wait = intended - System.nanoTime()) > 0 && !stopping) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    if (stopping) return;
+                }
+                NewApplication app = synthesize(rnd, smeShare, sequence.incrementAndGet());
+                boolean measured = recording;
+                try {
+                    service.submitNewApplication(session, app);
+                    if (measured) {
+                        completed.incrementAndGet();
+                        endToEnd.record(System.nanoTime() - intended);
+                    }
+                } catch (Exception e) {
+                    if (measured) failed.incrementAndGet();
+                    if (failed.get() <= 5) e.printStackTrace();
+                }
+            }
+        }
+
+        void report(java.io.PrintStream out) {
+            double seconds = measuredNanos / 1e9;
+            out.printf("%nCompleted %d submits in %.1f s: %.1f submits/s, %d failed%n",
+                    completed.get(), seconds, completed.get() / seconds, failed.get());
+            out.printf("%-20s %10s %10s %10s %10s %10s%n", "stage (ms)", "count", "p50", "p99", "p99.9", "max");
+            for (Map.Entry<SubmitStage, Recorder> e : stages.entrySet()) {
+                e.getValue().print(out, e.getKey().name());
+            }
+            if (intervalNanos > 0) endToEnd.print(out, "SCHEDULED_TOTAL");
+        }
+    }
+
+    /**
+     * Exact latency samples; sorted once for the report.
+     */
+    private static final class Recorder {
+        private long[] samples = new long[4096];
+        private int size;
+
+        synchronized void record(long nanos) {
+            if (size == samples.length) samples = Arrays.copyOf(samples, size * 2);
+            samples[size++] = nanos;
+        }
+
+        synchronized void print(java.io.PrintStream out, String name) {
+            if (size == 0) return;
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            out.printf("%-20s %10d %10.3f %10.3f %10.3f %10.3f%n", name, size,
+                    pct(sorted, 0.50), pct(sorted, 0.99), pct(sorted, 0.999), sorted[size - 1] / 1e6);
+        }
+
+        private static double pct(long[] sorted, double p) {
+            int idx = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, idx))] / 1e6;
+        }
+    }
+}
@@ -1,5 +1,154 @@
 package com.finbasics;
 
-public class Navigator {
-    
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Screen navigation for the desktop app.
+ *
+ * Each FXML file is parsed once and its root/controller pair kept, and the
+ * stage keeps one Scene whose root is swapped on navigation, so moving
+ * between screens costs no XML parsing, controller reflection or stylesheet
+ * loading after the first visit. Controllers that implement {@link Screen}
+ * are told when they are shown and hidden, and refresh their data in
+ * {@link Screen#onShow()}. After each navigation the screens the user is
+ * likely to open next are parsed on a background thread; a screen opened
+ * before its preload has finished is parsed on the spot instead.
+ */
+public final class Navigator {
+
+    public static final String LOGIN = "/fxml/login.fxml";
+    public static final String DASHBOARD = "/fxml/dashboard.fxml";
+    public static final String APPLICANT_DETAIL = "/fxml/applicant_detail.fxml";
+    public static final String RISK_ASSESSMENT = "/fxml/risk_assessment.fxml";
+    public static final String SUBMIT_APPLICATION = "/fxml/submit_application.fxml";
+
+    private static final double WIDTH = 1200;
+    private static final double HEIGHT = 720;
+
+    // Forms keep what the user typed, so they are built fresh on every visit.
+    private static final Set<String> UNCACHED = Set.of(SUBMIT_APPLICATION);
+
+    private static final Map<String, List<String>> LIKELY_NEXT = Map.of(
+            LOGIN, List.of(DASHBOARD),
+            DASHBOARD, List.of(APPLICANT_DETAIL),
+            APPLICANT_DETAIL, List.of(RISK_ASSESSMENT),
+            RISK_ASSESSMENT, List.of(DASHBOARD));
+
+    private static final Executor PRELOADER =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("fxml-preload-", 0).factory());
+
+    private static final ConcurrentHashMap<String, CompletableFuture<View>> VIEWS = new ConcurrentHashMap<>();
+
+    private static Stage stage;
+    private static Scene scene;
+    private static View current;
+
+    private Navigator() {}
+
+    /**
+     * A parsed screen: the root node and its controller.
+     */
+    public record View(Parent root, Object controller) {}
+
+    /**
+     * Implemented by controllers that need to know when their cached view is
+     * put on screen or taken off it. Both run on the FX thread.
+     */
+    public interface Screen {
+
+        /** The view has just become the scene root; reload its data here. */
+        default void onShow() {}
+
+        /** The view is about to be replaced by another screen. */
+        default void onHide() {}
+    }
+
+    /**
+     * Use {@code primary} for all navigation. Call once at startup.
+     */
+    public static void install(Stage primary) {
+        stage = primary;
+    }
+
+    /**
+     * Show the screen for {@code fxml}, reusing its cached view if it has one.
+     *
+     * @param title new window title, or null to keep the current one
+     * @throws IOException if the FXML has not been loaded yet and fails to load
+     */
+    public static void show(String fxml, String title) throws IOException {
+        View next = view(fxml);
+        if (current != null && current.controller() instanceof Screen s) s.onHide();
+        if (scene == null) {
+            scene = new Scene(next.root(), WIDTH, HEIGHT);
+            stage.setScene(scene);
+        } else {
+            scene.setRoot(next.root());
+        }
+        current = next;
+        if (title != null) stage.setTitle(title);
+        if (next.controller() instanceof Screen s) s.onShow();
+        for (String likely : LIKELY_NEXT.getOrDefault(fxml, List.of())) {
+            preload(likely);
+        }
+    }
+
+    /**
+     * Parse {@code fxml} in the background unless it is already cached or
+     * being parsed.
+     */
+    public static void preload(String fxml) {
+        if (UNCACHED.contains(fxml)) return;
+        VIEWS.computeIfAbsent(fxml, k -> {
+            CompletableFuture<View> f = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return load(k);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, PRELOADER);
+            f.whenComplete((v, e) -> {
+                if (e != null) {
+                    VIEWS.remove(k, f);
+                    e.printStackTrace();
+                }
+            });
+            return f;
+        });
+    }
+
+    private static View view(String fxml) throws IOException {
+        if (UNCACHED.contains(fxml)) return load(fxml);
+        CompletableFuture<View> pending = VIEWS.get(fxml);
+        if (pending != null && pending.isDone() && !pending.isCompletedExceptionally()) {
+            return pending.join();
+        }
+        // Never block the FX thread on the preloader: parse here and let a preload
+        // still in flight finish unused.
+        View v = load(fxml);
+        VIEWS.put(fxml, CompletableFuture.completedFuture(v));
+        return v;
+    }
+
+    private static View load(String fxml) throws IOException {
+        URL url = Navigator.class.getResource(fxml);
+        if (url == null) throw new IOException("Missing FXML resource " + fxml);
+        FXMLLoader loader = new FXMLLoader(url);
+        Parent root = loader.load();
+        return new View(root, loader.getController());
+    }
 }
@@ -0,0 +1,420 @@
+package com.finbasics.api;
+
+import com.finbasics.metrics.FlightRecording;
+import com.finbasics.model.ApplicationRow;
+import com.finbasics.model.NewApplication;
+import com.finbasics.model.StatementAnalysis;
+import com.finbasics.persistence.ApplicationRepository;
+import com.finbasics.persistence.AuditRepository;
+import com.finbasics.persistence.Database;
+import com.finbasics.persistence.StatementAnalysisRepository;
+import com.finbasics.service.ApplicationException;
+import com.finbasics.service.ApplicationService;
+import com.finbasics.service.AuthException;
+import com.finbasics.service.AuthService;
+import com.finbasics.service.FinancialCalculator;
+import com.finbasics.service.FinancialCalculator.Evaluation;
+import com.finbasics.service.PolicyEngine;
+import com.finbasics.service.PolicySnapshot;
+import com.finbasics.service.SessionRegistry;
+import com.finbasics.service.UserSession;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless underwriting API over the JDK HttpServer, one virtual thread per
+ * request. Runs alongside (not inside) the JavaFX App against the same
+ * database and services.
+ *
+ * Routes (JSON in and out):
+ * <pre>
+ *   POST   /api/sessions                      log in; body {"username", "password"} -> {"token", ...}
+ *   DELETE /api/sessions                      log out
+ *   POST   /api/applications                  submit; body = NewApplication fields
+ *   GET    /api/applications/{id}             header
+ *   GET    /api/applications/{id}/analysis    statement analysis
+ *   GET    /api/applications/{id}/grade       tier and per-metric evaluations
+ *   PUT    /api/applications/{id}/status      body {"status": "APPROVED" | "APPROVED_CONDITIONS" | "DECLINED"}
+ *   GET    /api/health
+ * </pre>
+ *
+ * Everything except login and health needs "Authorization: Bearer &lt;token&gt;"
+ * from POST /api/sessions. Sessions live in a {@link SessionRegistry}
+ * (finbasics.session.ttlMinutes idle timeout), so each request runs as its
+ * caller with no shared mutable state.
+ *
+ * Options for {@link #main}: --port=8080, --db=PATH (default ~/finbasics/finbasics.db).
+ * finbasics.api.backlog (default 4096) sets the accept backlog.
+ */
+public class ApiServer {
+
+    static final Set<String> DECISIONS = Set.of("APPROVED", "APPROVED_CONDITIONS", "DECLINED");
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService housekeeping;
+    private final SessionRegistry sessions;
+    private final AuthService auth = new AuthService();
+    private final ApplicationService applications = new ApplicationService();
+    private final ApplicationRepository appRepo = new ApplicationRepository();
+    private final StatementAnalysisRepository analysisRepo = new StatementAnalysisRepository();
+    private final AuditRepository audit = new AuditRepository();
+
+    private ApiServer(HttpServer server, SessionRegistry sessions) {
+        this.server = server;
+        this.sessions = sessions;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+        this.housekeeping = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "finbasics-api-sessions");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeping.scheduleAtFixedRate(sessions::purgeExpired, 1, 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Start serving on {@code address} (port 0 picks a free port). The
+     * database must already be initialized.
+     */
+    public static ApiServer start(InetSocketAddress address) throws IOException {
+        HttpServer http = HttpServer.create(address, Integer.getInteger("finbasics.api.backlog", 4096));
+        ApiServer api = new ApiServer(http, SessionRegistry.fromSystemProperties());
+        http.start();
+        return api;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /** Stop accepting requests, giving in-flight ones up to {@code delaySeconds} to finish. */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        housekeeping.shutdownNow();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = 8080;
+        String db = null;
+        for (String a : args) {
+            if (a.startsWith("--port=")) port = Integer.parseInt(a.substring(7));
+            else if (a.startsWith("--db=")) db = a.substring(5);
+            else throw new IllegalArgumentException("Unexpected argument: " + a);
+        }
+        FlightRecording.startIfConfigured();
+        if (db != null) Database.init(Paths.get(db));
+        else Database.init();
+        PolicyEngine.start();
+
+        ApiServer api = start(new InetSocketAddress(port));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> api.stop(2), "finbasics-api-stop"));
+        System.out.println("FinBasics API listening on port " + api.port());
+    }
+
+    // ---------------- routing ----------------
+
+    private void handle(HttpExchange ex) throws IOException {
+        try (ex) {
+            String method = ex.getRequestMethod();
+            String[] path = ex.getRequestURI().getPath().substring("/api/".length()).split("/");
+            try {
+                if (path.length == 1 && path[0].equals("health")) {
+                    requireMethod(method, "GET");
+                    send(ex, 200, Map.of("status", "ok", "policyVersion", PolicyEngine.current().version()));
+                } else if (path.length == 1 && path[0].equals("sessions")) {
+                    if (method.equals("POST")) {
+                        send(ex, 201, login(readBody(ex)));
+                    } else {
+                        requireMethod(method, "DELETE");
+                        auth.closeSession(sessions, requireSession(ex));
+                        send(ex, 200, Map.of("status", "logged out"));
+                    }
+                } else if (path.length == 1 && path[0].equals("applications")) {
+                    requireMethod(method, "POST");
+                    send(ex, 201, submit(requireSession(ex), readBody(ex)));
+                } else if (path.length >= 2 && path.length <= 3 && path[0].equals("applications")) {
+                    UserSession session = requireSession(ex);
+                    int id = parseId(path[1]);
+                    String sub = path.length == 3 ? path[2] : "";
+                    switch (sub) {
+                        case "" -> {
+                            requireMethod(method, "GET");
+                            send(ex, 200, header(requireHeader(id)));
+                        }
+                        case "analysis" -> {
+                            requireMethod(method, "GET");
+                            send(ex, 200, analysis(requireAnalysis(id)));
+                        }
+                        case "grade" -> {
+                            requireMethod(method, "GET");
+                            send(ex, 200, grade(requireAnalysis(id)));
+                        }
+                        case "status" -> {
+                            requireMethod(method, "PUT");
+                            send(ex, 200, updateStatus(session, id, readBody(ex)));
+                        }
+                        default -> throw new ApiError(404, "Not found");
+                    }
+                } else {
+                    throw new ApiError(404, "Not found");
+                }
+            } catch (ApiError e) {
+                send(ex, e.status, error(e, "Error"));
+            } catch (AuthException e) {
+                send(ex, 401, error(e, "Unauthorized"));
+            } catch (IllegalArgumentException e) {
+                send(ex, 400, error(e, "Bad request"));
+            } catch (SQLException | ApplicationException | RuntimeException e) {
+                e.printStackTrace();
+                send(ex, 500, Map.of("error", "Internal error"));
+            }
+        }
+    }
+
+    // Map.of rejects nulls, and plenty of exceptions carry no message.
+    private static Map<String, Object> error(Exception e, String fallback) {
+        return Map.of("error", e.getMessage() != null ? e.getMessage() : fallback);
+    }
+
+    // ---------------- endpoints ----------------
+
+    private Map<String, Object> login(Map<String, Object> body) throws AuthException {
+        UserSession session = auth.openSession(sessions, string(body, "username", true), string(body, "password", true));
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("token", session.token());
+        out.put("username", session.user().getUsername());
+        out.put("expiresAt", String.valueOf(session.expiresAt()));
+        return out;
+    }
+
+    private Map<String, Object> submit(UserSession session, Map<String, Object> body) throws ApplicationException, SQLException {
+        NewApplication app = toNewApplication(body);
+        int id = applications.submitNewApplication(session, app);
+        ApplicationRow h = appRepo.findHeader(id);
+        Map<String, Object> out = header(h);
+        out.put("tier", FinancialCalculator.tierNumber(analysisRepo.findByApplicationId(id)));
+        return out;
+    }
+
+    private Map<String, Object> updateStatus(UserSession session, int id, Map<String, Object> body) throws SQLException {
+        String status = string(body, "status", true);
+        if (!DECISIONS.contains(status)) {
+            throw new IllegalArgumentException("status must be one of " + DECISIONS);
+        }
+        requireHeader(id);
+        appRepo.updateStatus(id, status);
+        audit.log(session.userId(), "APP_STATUS", "application_id=" + id + " status=" + status);
+        return header(requireHeader(id));
+    }
+
+    static NewApplication toNewApplication(Map<String, Object> body) {
+        NewApplication app = new NewApplication();
+        String type = string(body, "borrowerType", true).toUpperCase(Locale.ROOT);
+        if (!type.equals("SME") && !type.equals("CONSUMER")) {
+            throw new IllegalArgumentException("borrowerType must be SME or CONSUMER");
+        }
+        app.setBorrowerType(type);
+        app.setBorrowerName(string(body, "borrowerName", true));
+        app.setBorrowerIdNumber(string(body, "borrowerIdNumber", true));
+        app.setProductType(string(body, "productType", true));
+        Double amount = number(body, "requestedAmount", true);
+        if (amount <= 0) throw new IllegalArgumentException("requestedAmount must be positive");
+        app.setRequestedAmount(amount);
+        app.setBusinessName(string(body, "businessName", false));
+        app.setEin(string(body, "ein", false));
+        app.setNaicsCode(string(body, "naicsCode", false));
+        app.setDateEstablishedIso(string(body, "dateEstablished", false));
+        app.setGuarantorName(string(body, "guarantorName", false));
+        app.setConsumerName(string(body, "consumerName", false));
+        app.setSsn(string(body, "ssn", false));
+        app.setEmployer(string(body, "employer", false));
+        app.setAnnualIncome(number(body, "annualIncome", false));
+        return app;
+    }
+
+    private static Map<String, Object> header(ApplicationRow h) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("id", h.id());
+        out.put("applicationNumber", h.applicationNumber());
+        out.put("borrowerType", h.borrowerType());
+        out.put("borrowerName", h.borrowerName());
+        out.put("productType", h.productType());
+        out.put("requestedAmount", h.requestedAmount());
+        out.put("status", h.status());
+        out.put("createdAt", h.createdAt().toString());
+        return out;
+    }
+
+    private static Map<String, Object> analysis(StatementAnalysis sa) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("applicationId", sa.getApplicationId());
+        out.put("borrowerType", sa.getBorrowerType());
+        out.put("periodStart", sa.getPeriodStart());
+        out.put("periodEnd", sa.getPeriodEnd());
+        out.put("revenue", sa.getRevenue());
+        out.put("ebitda", sa.getEbitda());
+        out.put("netIncome", sa.getNetIncome());
+        out.put("totalAssets", sa.getTotalAssets());
+        out.put("totalLiabilities", sa.getTotalLiabilities());
+        out.put("currentAssets", sa.getCurrentAssets());
+        out.put("currentLiabilities", sa.getCurrentLiabilities());
+        out.put("cash", sa.getCash());
+        out.put("interestExpense", sa.getInterestExpense());
+        out.put("debtService", sa.getDebtService());
+        out.put("ebitdaMargin", sa.getEbitdaMargin());
+        out.put("netMargin", sa.getNetMargin());
+        out.put("currentRatio", sa.getCurrentRatio());
+        out.put("quickRatio", sa.getQuickRatio());
+        out.put("debtToEquity", sa.getDebtToEquity());
+        out.put("dscr", sa.getDscr());
+        out.put("roa", sa.getRoa());
+        out.put("roe", sa.getRoe());
+        out.put("dso", sa.getDso());
+        out.put("inventoryTurnover", sa.getInventoryTurnover());
+        out.put("assetTurnover", sa.getAssetTurnover());
+        out.put("monthlyIncome", sa.getMonthlyIncome());
+        out.put("monthlyDebtPayments", sa.getMonthlyDebtPayments());
+        out.put("dti", sa.getDti());
+        out.put("ltv", sa.getLtv());
+        out.put("creditScore", sa.getCreditScore());
+        out.put("createdAt", sa.getCreatedAt());
+        return out;
+    }
+
+    private static Map<String, Object> grade(StatementAnalysis sa) {
+        PolicySnapshot policy = PolicyEngine.current();
+        FinancialCalculator.Tier tier = FinancialCalculator.grade(sa);
+        List<Evaluation> evaluations = new ArrayList<>();
+        if ("SME".equalsIgnoreCase(sa.getBorrowerType())) {
+            evaluations.add(FinancialCalculator.evaluateSmeDscr(sa.getDscr()));
+            evaluations.add(FinancialCalculator.evaluateSmeCurrentRatio(sa.getCurrentRatio()));
+            evaluations.add(FinancialCalculator.evaluateSmeQuickRatio(sa.getQuickRatio()));
+            evaluations.add(FinancialCalculator.evaluateSmeLeverage(sa.getDebtToEquity()));
+            evaluations.add(FinancialCalculator.evaluateSmeProfitability(sa.getNetMargin()));
+        } else {
+            evaluations.add(FinancialCalculator.evaluateConsumerDti(sa.getDti()));
+            evaluations.add(FinancialCalculator.evaluateConsumerCreditScore(sa.getCreditScore()));
+            evaluations.add(FinancialCalculator.evaluateConsumerLtv(sa.getLtv()));
+        }
+        List<Map<String, Object>> metrics = new ArrayList<>(evaluations.size());
+        for (Evaluation e : evaluations) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("label", e.label());
+            m.put("value", e.value());
+            m.put("display", e.formattedValue());
+            m.put("status", e.status());
+            m.put("narrative", e.narrative());
+            metrics.add(m);
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("applicationId", sa.getApplicationId());
+        out.put("tier", tier.number());
+        out.put("label", tier.label());
+        out.put("policyVersion", policy.version());
+        out.put("metrics", metrics);
+        return out;
+    }
+
+    // ---------------- helpers ----------------
+
+    private UserSession requireSession(HttpExchange ex) {
+        String header = ex.getRequestHeaders().getFirst("Authorization");
+        String token = header != null && header.regionMatches(true, 0, "Bearer ", 0, 7) ? header.substring(7).trim() : null;
+        UserSession session = sessions.find(token);
+        if (session == null) throw new ApiError(401, "Login required");
+        return session;
+    }
+
+    private ApplicationRow requireHeader(int id) throws SQLException {
+        ApplicationRow h = appRepo.findHeader(id);
+        if (h == null) throw new ApiError(404, "Application " + id + " not found");
+        return h;
+    }
+
+    private StatementAnalysis requireAnalysis(int id) throws SQLException {
+        StatementAnalysis sa = analysisRepo.findByApplicationId(id);
+        if (sa == null) throw new ApiError(404, "No analysis for application " + id);
+        return sa;
+    }
+
+    private static void requireMethod(String actual, String expected) {
+        if (!expected.equals(actual)) throw new ApiError(405, "Use " + expected);
+    }
+
+    private static int parseId(String s) {
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            throw new ApiError(404, "Not found");
+        }
+    }
+
+    private static Map<String, Object> readBody(HttpExchange ex) throws IOException {
+        try (InputStream in = ex.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) throw new ApiError(413, "Request body too large");
+            return Json.parseObject(new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String string(Map<String, Object> body, String key, boolean required) {
+        Object v = body.get(key);
+        if (v == null || v instanceof String s && s.isBlank()) {
+            if (required) throw new IllegalArgumentException(key + " is required");
+            return null;
+        }
+        if (!(v instanceof String s)) throw new IllegalArgumentException(key + " must be a string");
+        return s.trim();
+    }
+
+    private static Double number(Map<String, Object> body, String key, boolean required) {
+        Object v = body.get(key);
+        if (v == null) {
+            if (required) throw new IllegalArgumentException(key + " is required");
+            return null;
+        }
+        if (!(v instanceof Number n)) throw new IllegalArgumentException(key + " must be a number");
+        return n.doubleValue();
+    }
+
+    private static void send(HttpExchange ex, int status, Object body) throws IOException {
+        byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /** Maps to an HTTP status with a JSON {"error": ...} body. */
+    private static final class ApiError extends RuntimeException {
+        final int status;
+
+        ApiError(int status, String message) {
+            super(message, null, false, false);
+            this.status = status;
+        }
+    }
+}
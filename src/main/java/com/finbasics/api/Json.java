@@ -0,0 +1,266 @@
+package com.finbasics.api;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON reader/writer for the HTTP API.
+ *
+ * Objects parse to LinkedHashMap, arrays to ArrayList, numbers to Long when
+ * integral and Double otherwise. The writer accepts Map, Iterable, CharSequence,
+ * Number, Boolean, Enum (its name) and null. Malformed input, and nesting
+ * deeper than {@value #MAX_DEPTH} levels, throws IllegalArgumentException.
+ */
+public final class Json {
+
+    /** Far beyond any API body; keeps a run of '[' from overflowing the stack. */
+    static final int MAX_DEPTH = 64;
+
+    private final String text;
+    private int pos;
+    private int depth;
+
+    private Json(String text) {
+        this.text = text;
+    }
+
+    public static Object parse(String text) {
+        Json p = new Json(text);
+        p.skipWhitespace();
+        Object value = p.readValue();
+        p.skipWhitespace();
+        if (p.pos != text.length()) throw p.error("Trailing characters");
+        return value;
+    }
+
+    /** Parse a document that must be an object. */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> parseObject(String text) {
+        Object value = parse(text);
+        if (!(value instanceof Map)) throw new IllegalArgumentException("Expected a JSON object");
+        return (Map<String, Object>) value;
+    }
+
+    public static String write(Object value) {
+        StringBuilder sb = new StringBuilder(256);
+        write(sb, value);
+        return sb.toString();
+    }
+
+    // ---------------- writing ----------------
+
+    private static void write(StringBuilder sb, Object value) {
+        if (value == null) {
+            sb.append("null");
+        } else if (value instanceof CharSequence s) {
+            writeString(sb, s);
+        } else if (value instanceof Double d) {
+            // JSON has no NaN / Infinity.
+            if (d.isNaN() || d.isInfinite()) sb.append("null");
+            else sb.append(d);
+        } else if (value instanceof Number || value instanceof Boolean) {
+            sb.append(value);
+        } else if (value instanceof Enum<?> e) {
+            writeString(sb, e.name());
+        } else if (value instanceof Map<?, ?> map) {
+            sb.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                if (!first) sb.append(',');
+                first = false;
+                writeString(sb, String.valueOf(e.getKey()));
+                sb.append(':');
+                write(sb, e.getValue());
+            }
+            sb.append('}');
+        } else if (value instanceof Iterable<?> list) {
+            sb.append('[');
+            boolean first = true;
+            for (Object item : list) {
+                if (!first) sb.append(',');
+                first = false;
+                write(sb, item);
+            }
+            sb.append(']');
+        } else {
+            throw new IllegalArgumentException("Cannot write " + value.getClass().getName() + " as JSON");
+        }
+    }
+
+    private static void writeString(StringBuilder sb, CharSequence s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            switch (ch) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (ch < 0x20) sb.append(String.format("\\u%04x", (int) ch));
+                    else sb.append(ch);
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    // ---------------- parsing ----------------
+
+    private Object readValue() {
+        if (pos >= text.length()) throw error("Unexpected end of input");
+        char ch = text.charAt(pos);
+        return switch (ch) {
+            case '{' -> {
+                enter();
+                Map<String, Object> map = readObject();
+                depth--;
+                yield map;
+            }
+            case '[' -> {
+                enter();
+                List<Object> list = readArray();
+                depth--;
+                yield list;
+            }
+            case '"' -> readString();
+            case 't' -> literal("true", Boolean.TRUE);
+            case 'f' -> literal("false", Boolean.FALSE);
+            case 'n' -> literal("null", null);
+            default -> {
+                if (ch == '-' || (ch >= '0' && ch <= '9')) yield readNumber();
+                throw error("Unexpected character '" + ch + "'");
+            }
+        };
+    }
+
+    private void enter() {
+        if (++depth > MAX_DEPTH) throw error("Nesting deeper than " + MAX_DEPTH);
+    }
+
+    private Map<String, Object> readObject() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        pos++; // {
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return map;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') throw error("Expected a string key");
+            String key = readString();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            map.put(key, readValue());
+            skipWhitespace();
+            char ch = next();
+            if (ch == '}') return map;
+            if (ch != ',') throw error("Expected ',' or '}'");
+        }
+    }
+
+    private List<Object> readArray() {
+        List<Object> list = new ArrayList<>();
+        pos++; // [
+        skipWhitespace();
+        if (peek() == ']') {
+            pos++;
+            return list;
+        }
+        while (true) {
+            skipWhitespace();
+            list.add(readValue());
+            skipWhitespace();
+            char ch = next();
+            if (ch == ']') return list;
+            if (ch != ',') throw error("Expected ',' or ']'");
+        }
+    }
+
+    private String readString() {
+        expect('"');
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            char ch = next();
+            if (ch == '"') return sb.toString();
+            if (ch != '\\') {
+                sb.append(ch);
+                continue;
+            }
+            char esc = next();
+            switch (esc) {
+                case '"', '\\', '/' -> sb.append(esc);
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> {
+                    if (pos + 4 > text.length()) throw error("Bad unicode escape");
+                    try {
+                        sb.append((char) Integer.parseInt(text, pos, pos + 4, 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Bad unicode escape");
+                    }
+                    pos += 4;
+                }
+                default -> throw error("Bad escape '\\" + esc + "'");
+            }
+        }
+    }
+
+    private Number readNumber() {
+        int start = pos;
+        boolean integral = true;
+        if (peek() == '-') pos++;
+        while (pos < text.length()) {
+            char ch = text.charAt(pos);
+            if (ch >= '0' && ch <= '9') {
+                pos++;
+            } else if (ch == '.' || ch == 'e' || ch == 'E' || ch == '+' || ch == '-') {
+                integral = false;
+                pos++;
+            } else {
+                break;
+            }
+        }
+        String num = text.substring(start, pos);
+        try {
+            return integral ? (Number) Long.parseLong(num) : (Number) Double.parseDouble(num);
+        } catch (NumberFormatException e) {
+            throw error("Bad number '" + num + "'");
+        }
+    }
+
+    private Object literal(String word, Object value) {
+        if (!text.startsWith(word, pos)) throw error("Unexpected token");
+        pos += word.length();
+        return value;
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+    }
+
+    private char peek() {
+        return pos < text.length() ? text.charAt(pos) : '\0';
+    }
+
+    private char next() {
+        if (pos >= text.length()) throw error("Unexpected end of input");
+        return text.charAt(pos++);
+    }
+
+    private void expect(char ch) {
+        if (next() != ch) throw error("Expected '" + ch + "'");
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at offset " + pos);
+    }
+}
@@ -1,21 +1,20 @@
 package com.finbasics.controller;
 
-import com.finbasics.model.ApplicationSummary;
+import com.finbasics.Navigator;
+import com.finbasics.model.ApplicationRow;
 import com.finbasics.model.StatementAnalysis;
 import com.finbasics.persistence.ApplicationRepository;
 import com.finbasics.persistence.StatementAnalysisRepository;
 import com.finbasics.service.ApplicationContext;
+import com.finbasics.service.BackgroundLoader;
 
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Label;
-import javafx.stage.Stage;
 import java.io.IOException;
+import java.util.List;
 
-public class ApplicantDetailController {
+public class ApplicantDetailController implements Navigator.Screen {
 
     @FXML private Label lblApplicantName, lblApplicantId, lblStatusBadge;
     @FXML private Label lblApplicantType, lblApplicantProduct, lblApplicantAmount, lblAnalysisDate;
@@ -27,34 +26,62 @@ public class ApplicantDetailController {
 
     private final ApplicationRepository appRepo = new ApplicationRepository();
     private final StatementAnalysisRepository saRepo = new StatementAnalysisRepository();
+    private final BackgroundLoader.Scope tasks = BackgroundLoader.scope();
     private Integer currentAppId;
+    private boolean loaded;
+    private StatementAnalysis analysis;
+
+    private record Detail(ApplicationRow header, StatementAnalysis analysis) {}
 
     @FXML
     public void initialize() {
+        tasks.cancelWhenHidden(lblApplicantName);
+    }
+
+    /**
+     * Rebind the cached view to whichever application is now current.
+     */
+    @Override
+    public void onShow() {
+        loaded = false;
+        analysis = null;
         currentAppId = ApplicationContext.getCurrentApplicationId();
         if (currentAppId == null) return;
 
-        try {
-            ApplicationSummary h = appRepo.findHeader(currentAppId);
-            StatementAnalysis sa = saRepo.findByApplicationId(currentAppId);
-
-            if (h != null) {
-                lblApplicantName.setText(h.getBorrowerName());
-                lblApplicantId.setText(h.getApplicationNumber());
-                lblApplicantType.setText(h.getBorrowerType());
-                lblApplicantProduct.setText(h.getProductType());
-                lblApplicantAmount.setText(String.format("$%,.0f", h.getRequestedAmount()));
-                updateStatusBadge(h.getStatus());
-            }
-
-            if (sa != null) {
-                lblAnalysisDate.setText("Analyzed: " + sa.getCreatedAt().substring(0, 10));
-                if ("SME".equalsIgnoreCase(sa.getBorrowerType())) renderSme(sa);
-                else renderConsumer(sa);
-            } else {
-                 lblAnalysisDate.setText("No analysis data available.");
-            }
-        } catch (Exception e) { e.printStackTrace(); }
+        lblApplicantName.setText("Loading\u2026");
+        for (Label l : List.of(lblApplicantId, lblApplicantType, lblApplicantProduct, lblApplicantAmount, lblStatusBadge)) {
+            l.setText("");
+        }
+        clearMetrics();
+        lblAnalysisDate.setText("Loading analysis\u2026");
+        int appId = currentAppId;
+        tasks.load(() -> new Detail(appRepo.findHeader(appId), saRepo.findByApplicationId(appId)), this::render);
+    }
+
+    private void render(Detail d) {
+        ApplicationRow h = d.header();
+        StatementAnalysis sa = d.analysis();
+        loaded = true;
+        analysis = sa;
+
+        if (h != null) {
+            lblApplicantName.setText(h.borrowerName());
+            lblApplicantId.setText(h.applicationNumber());
+            lblApplicantType.setText(h.borrowerType());
+            lblApplicantProduct.setText(h.productType());
+            lblApplicantAmount.setText(String.format("$%,.0f", h.requestedAmount()));
+            updateStatusBadge(h.status());
+        } else {
+            lblApplicantName.setText("");
+        }
+
+        if (sa != null) {
+            lblAnalysisDate.setText("Analyzed: " + sa.getCreatedAt().substring(0, 10));
+            if ("SME".equalsIgnoreCase(sa.getBorrowerType())) renderSme(sa);
+            else renderConsumer(sa);
+        } else {
+             lblAnalysisDate.setText("No analysis data available.");
+        }
     }
 
     private void updateStatusBadge(String status) {
@@ -117,21 +144,28 @@ public class ApplicantDetailController {
 
     private void clear(Label t, Label v) { t.setText(""); v.setText(""); }
 
-    @FXML private void goHome() { loadScene("/fxml/dashboard.fxml"); }
+    private void clearMetrics() {
+        for (Label l : List.of(lblM1T, lblM1V, lblM2T, lblM2V, lblM3T, lblM3V, lblM4T, lblM4V,
+                lblM5T, lblM5V, lblM6T, lblM6V, lblM7T, lblM7V, lblM8T, lblM8V,
+                lblM9T, lblM9V, lblM10T, lblM10V, lblM11T, lblM11V, lblM12T, lblM12V)) {
+            l.setText("");
+        }
+    }
+
+    @FXML private void goHome() { show(Navigator.DASHBOARD); }
 
     @FXML private void openRiskAssessment() {
-        if (lblAnalysisDate.getText().contains("No analysis")) {
+        if (!loaded) return;
+        if (analysis == null) {
              new Alert(Alert.AlertType.WARNING, "Cannot proceed. No financial analysis data found for this applicant.").showAndWait();
              return;
         }
-        loadScene("/fxml/risk_assessment.fxml");
+        show(Navigator.RISK_ASSESSMENT);
     }
 
-    private void loadScene(String fxml) {
+    private void show(String fxml) {
         try {
-            Stage stage = (Stage) lblApplicantName.getScene().getWindow();
-            Parent root = FXMLLoader.load(getClass().getResource(fxml));
-            stage.setScene(new Scene(root, 1200, 720));
+            Navigator.show(fxml, null);
         } catch (IOException e) { e.printStackTrace(); }
     }
-}
\ No newline at end of file
+}
@@ -1,58 +1,93 @@
 package com.finbasics.controller;
 
-import com.finbasics.model.ApplicationSummary;
+import com.finbasics.Navigator;
+import com.finbasics.model.ApplicationRow;
+import com.finbasics.persistence.ApplicationQuery;
+import com.finbasics.persistence.ApplicationQuery.SortKey;
 import com.finbasics.service.ApplicationContext;
+import com.finbasics.service.ApplicationFeed;
+import com.finbasics.service.ApplicationPager;
 import com.finbasics.service.ApplicationService;
+import com.finbasics.service.BackgroundLoader;
 import com.finbasics.service.Session;
 
-import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
 import javafx.scene.control.*;
-import javafx.stage.Stage;
 
 import java.io.IOException;
-import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Collectors;
 
 /**
  * Main dashboard: shows pipeline KPIs and applicants list.
  * Double-click or "Open Applicant" navigates to detail + statement analysis page.
  */
-public class DashboardController {
+public class DashboardController implements Navigator.Screen {
 
     @FXML private Label userLabel;
 
-    @FXML private TableView<ApplicationSummary> appTable;
-    @FXML private TableColumn<ApplicationSummary, String> colAppNo;
-    @FXML private TableColumn<ApplicationSummary, String> colBorrower;
-    @FXML private TableColumn<ApplicationSummary, String> colType;
-    @FXML private TableColumn<ApplicationSummary, String> colProduct;
-    @FXML private TableColumn<ApplicationSummary, String> colAmount;
-    @FXML private TableColumn<ApplicationSummary, String> colStatus;
-    @FXML private TableColumn<ApplicationSummary, String> colCreated;
+    @FXML private TableView<ApplicationRow> appTable;
+    @FXML private TableColumn<ApplicationRow, String> colAppNo;
+    @FXML private TableColumn<ApplicationRow, String> colBorrower;
+    @FXML private TableColumn<ApplicationRow, String> colType;
+    @FXML private TableColumn<ApplicationRow, String> colProduct;
+    @FXML private TableColumn<ApplicationRow, String> colAmount;
+    @FXML private TableColumn<ApplicationRow, String> colStatus;
+    @FXML private TableColumn<ApplicationRow, String> colCreated;
 
     @FXML private Button btnNewApplication;
     @FXML private Button btnOpenApplicant;
 
+    @FXML private TextField txtSearch, txtMinAmount, txtMaxAmount;
+    @FXML private ComboBox<String> cbStatus, cbType, cbProduct;
+
     private final ApplicationService appService = new ApplicationService();
+    private final ObservableList<ApplicationRow> rows = FXCollections.observableArrayList();
+    private final BackgroundLoader.Scope tasks = BackgroundLoader.scope();
+    private final Label loadingPlaceholder = new Label("Loading applications\u2026");
+    private Node emptyPlaceholder;
+    private final ApplicationFeed feed = appService.feed(this::applyChanges);
+    private final Map<TableColumn<ApplicationRow, ?>, SortKey> sortKeys = new HashMap<>();
+    private ApplicationQuery query = ApplicationQuery.NEWEST_FIRST;
+    private ApplicationPager pager;
+    private boolean pageLoading;
+    private boolean resettingFilters;
+    // False until the first page is in, and again if a page fetch was cancelled midway.
+    private boolean windowIntact;
+
+    // Start fetching the next page once the scrollbar passes 90% of its range.
+    private static final double PREFETCH_THRESHOLD = 0.9;
+
+    // First entry of each filter box means "no filter".
+    private static final String ANY = "Any";
+    private static final List<String> STATUSES =
+            List.of(ANY, "ANALYSIS_PENDING", "ANALYZED", "APPROVED", "APPROVED_CONDITIONS", "DECLINED");
+    private static final List<String> BORROWER_TYPES = List.of(ANY, "SME", "CONSUMER");
+    private static final List<String> PRODUCTS = List.of(ANY,
+            "SME Term Loan", "Line of Credit", "CRE Mortgage", "Equipment Lease",
+            "Personal Loan", "Auto Loan", "Home Equity (HELOC)", "Mortgage");
 
     @FXML
     public void initialize() {
-        var user = Session.getCurrentUser();
-        if (user != null) {
-            userLabel.setText("Analyst: " + user.getUsername());
-        } else {
-            userLabel.setText("Analyst: (not logged in)");
-        }
-
+        tasks.cancelWhenHidden(appTable);
+        emptyPlaceholder = appTable.getPlaceholder();
         setupTable();
-        loadApplicants();
+        setupFilters();
+        installServerSort();
+        installPaging();
 
         appTable.setRowFactory(tv -> {
-            TableRow<ApplicationSummary> row = new TableRow<>();
+            TableRow<ApplicationRow> row = new TableRow<>();
             row.setOnMouseClicked(event -> {
                 if (event.getClickCount() == 2 && !row.isEmpty()) {
                     openDetailFor(row.getItem());
@@ -62,15 +97,43 @@ public class DashboardController {
         });
     }
 
+    /**
+     * The view is cached by the {@link Navigator}. The list is loaded once and
+     * then kept current by the feed, which catches up on anything that changed
+     * while the dashboard was hidden as soon as it is shown again.
+     */
+    @Override
+    public void onShow() {
+        var user = Session.getCurrentUser();
+        if (user != null) {
+            userLabel.setText("Analyst: " + user.getUsername());
+        } else {
+            userLabel.setText("Analyst: (not logged in)");
+        }
+        if (!windowIntact) loadApplicants();
+        feed.start();
+    }
+
+    @Override
+    public void onHide() {
+        feed.stop();
+    }
+
+    private void applyChanges(List<ApplicationRow> changed) {
+        if (pager == null) return;
+        ApplicationFeed.merge(rows, changed, pager.query(), !pager.hasMore());
+    }
+
     private void setupTable() {
-        colAppNo.setCellValueFactory(c -> c.getValue().applicationNumberProperty());
-        colBorrower.setCellValueFactory(c -> c.getValue().borrowerNameProperty());
-        colType.setCellValueFactory(c -> c.getValue().borrowerTypeProperty());
-        colProduct.setCellValueFactory(c -> c.getValue().productTypeProperty());
+        // Rows are plain records; a cell's property is built only while the cell is drawn.
+        colAppNo.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().applicationNumber()));
+        colBorrower.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().borrowerName()));
+        colType.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().borrowerType()));
+        colProduct.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().productType()));
         colAmount.setCellValueFactory(c ->
-                new SimpleStringProperty(String.format("$%,.0f", c.getValue().getRequestedAmount())));
-        colStatus.setCellValueFactory(c -> c.getValue().statusProperty());
-        colCreated.setCellValueFactory(c -> c.getValue().createdAtProperty());
+                new ReadOnlyStringWrapper(String.format("$%,.0f", c.getValue().requestedAmount())));
+        colStatus.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().status()));
+        colCreated.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().createdAt().toString()));
 
         colStatus.setCellFactory(col -> new TableCell<>() {
             @Override
@@ -91,30 +154,173 @@ public class DashboardController {
         });
     }
 
-    private void loadApplicants() {
+    private void setupFilters() {
+        cbStatus.getItems().setAll(STATUSES);
+        cbType.getItems().setAll(BORROWER_TYPES);
+        cbProduct.getItems().setAll(PRODUCTS);
+        for (ComboBox<String> box : List.of(cbStatus, cbType, cbProduct)) {
+            box.getSelectionModel().selectFirst();
+            box.setOnAction(e -> applyFilters());
+        }
+    }
+
+    /**
+     * Clicking a column header re-queries the database in that column's order
+     * instead of sorting the loaded rows; only the first sort column counts.
+     */
+    private void installServerSort() {
+        sortKeys.put(colAppNo, SortKey.APPLICATION_NUMBER);
+        sortKeys.put(colBorrower, SortKey.BORROWER_NAME);
+        sortKeys.put(colType, SortKey.BORROWER_TYPE);
+        sortKeys.put(colProduct, SortKey.PRODUCT_TYPE);
+        sortKeys.put(colAmount, SortKey.REQUESTED_AMOUNT);
+        sortKeys.put(colStatus, SortKey.STATUS);
+        sortKeys.put(colCreated, SortKey.CREATED_AT);
+
+        colCreated.setSortType(TableColumn.SortType.DESCENDING);
+        appTable.getSortOrder().setAll(List.of(colCreated));
+        appTable.setSortPolicy(table -> {
+            ApplicationQuery sorted = sortedQuery();
+            if (!sorted.equals(query)) {
+                query = sorted;
+                loadApplicants();
+            }
+            return true;
+        });
+    }
+
+    private ApplicationQuery sortedQuery() {
+        List<TableColumn<ApplicationRow, ?>> order = appTable.getSortOrder();
+        if (order.isEmpty()) return query.sortedBy(SortKey.CREATED_AT, true);
+        TableColumn<ApplicationRow, ?> column = order.get(0);
+        return query.sortedBy(sortKeys.get(column), column.getSortType() == TableColumn.SortType.DESCENDING);
+    }
+
+    @FXML
+    private void applyFilters() {
+        if (resettingFilters) return;
+        Double min = parseAmount(txtMinAmount);
+        Double max = parseAmount(txtMaxAmount);
+        if ((min != null && min.isNaN()) || (max != null && max.isNaN())) return;
+
+        ApplicationQuery filtered = query
+                .withStatus(choice(cbStatus))
+                .withBorrowerType(choice(cbType))
+                .withProductType(choice(cbProduct))
+                .withAmountRange(min, max)
+                .withBorrowerNamePrefix(txtSearch.getText().trim());
+        if (!filtered.equals(query)) {
+            query = filtered;
+            loadApplicants();
+        }
+    }
+
+    @FXML
+    private void clearFilters() {
+        resettingFilters = true;
         try {
-            ObservableList<ApplicationSummary> list = appService.loadApplicationSummaries();
-            appTable.setItems(list);
-        } catch (SQLException e) {
-            e.printStackTrace();
+            txtSearch.clear();
+            txtMinAmount.clear();
+            txtMaxAmount.clear();
+            for (ComboBox<String> box : List.of(cbStatus, cbType, cbProduct)) {
+                box.getSelectionModel().selectFirst();
+            }
+        } finally {
+            resettingFilters = false;
+        }
+        applyFilters();
+    }
+
+    private static String choice(ComboBox<String> box) {
+        String value = box.getValue();
+        return value == null || ANY.equals(value) ? null : value;
+    }
+
+    /** Null when blank, NaN (and the field flagged) when not a number. */
+    private static Double parseAmount(TextField field) {
+        String text = field.getText().replaceAll("[$,]", "").trim();
+        field.setStyle("");
+        if (text.isEmpty()) return null;
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            field.setStyle("-fx-border-color:#c0392b;");
+            return Double.NaN;
         }
     }
 
+    private void loadApplicants() {
+        tasks.cancelAll();
+        pageLoading = false;
+        windowIntact = false;
+        ApplicationPager source = appService.pager(query);
+        pager = source;
+        rows.clear();
+        appTable.setItems(rows);
+        appTable.setPlaceholder(loadingPlaceholder);
+        // Mark first, so the feed replays anything committed while the page loads.
+        loadPage(source, () -> {
+            feed.markNow();
+            return source.nextPage();
+        });
+    }
+
+    private void loadNextPage() {
+        if (pager == null || pageLoading || !pager.hasMore()) return;
+        loadPage(pager, pager::nextPage);
+    }
+
+    /**
+     * Fetch a page in the background; at most one page is in flight, and a
+     * page from a pager that has since been replaced is dropped.
+     */
+    private void loadPage(ApplicationPager source, Callable<List<ApplicationRow>> fetch) {
+        pageLoading = true;
+        tasks.load(fetch, page -> {
+            if (source != pager) return;
+            // Pages follow the window, but the feed may already have added a row.
+            Set<Integer> shown = rows.stream().map(ApplicationRow::id).collect(Collectors.toSet());
+            rows.addAll(page.stream().filter(r -> !shown.contains(r.id())).toList());
+            windowIntact = true;
+        }).whenComplete((page, e) -> {
+            if (source != pager) return;
+            pageLoading = false;
+            if (e instanceof CancellationException) windowIntact = false;
+            appTable.setPlaceholder(emptyPlaceholder);
+        });
+    }
+
+    /**
+     * Fetch the next page when the user scrolls near the bottom of the table,
+     * so only the rows actually viewed are ever loaded.
+     */
+    private void installPaging() {
+        appTable.skinProperty().addListener((obs, oldSkin, newSkin) -> {
+            if (newSkin == null) return;
+            for (Node n : appTable.lookupAll(".scroll-bar")) {
+                if (n instanceof ScrollBar bar && bar.getOrientation() == Orientation.VERTICAL) {
+                    bar.valueProperty().addListener((o, was, now) -> {
+                        if (now.doubleValue() >= bar.getMax() * PREFETCH_THRESHOLD) {
+                            loadNextPage();
+                        }
+                    });
+                }
+            }
+        });
+    }
+
     @FXML
     private void openSelectedApplicant() {
-        ApplicationSummary selected = appTable.getSelectionModel().getSelectedItem();
+        ApplicationRow selected = appTable.getSelectionModel().getSelectedItem();
         if (selected != null) {
             openDetailFor(selected);
         }
     }
 
-    private void openDetailFor(ApplicationSummary app) {
+    private void openDetailFor(ApplicationRow app) {
         try {
-            ApplicationContext.setCurrentApplicationId(app.getId());
-            Stage stage = (Stage) appTable.getScene().getWindow();
-            Parent root = FXMLLoader.load(getClass().getResource("/fxml/applicant_detail.fxml"));
-            stage.setScene(new Scene(root, 1200, 720));
-            stage.setTitle("Applicant " + app.getApplicationNumber());
+            ApplicationContext.setCurrentApplicationId(app.id());
+            Navigator.show(Navigator.APPLICANT_DETAIL, "Applicant " + app.applicationNumber());
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -123,10 +329,7 @@ public class DashboardController {
     @FXML
     private void openNewApplication() {
         try {
-            Stage stage = (Stage) btnNewApplication.getScene().getWindow();
-            Parent root = FXMLLoader.load(getClass().getResource("/fxml/submit_application.fxml"));
-            stage.setScene(new Scene(root, 1200, 720));
-            stage.setTitle("New Application");
+            Navigator.show(Navigator.SUBMIT_APPLICATION, "New Application");
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -136,10 +339,7 @@ public class DashboardController {
     private void logout() {
         Session.clear();
         try {
-            Stage stage = (Stage) btnNewApplication.getScene().getWindow();
-            Parent root = FXMLLoader.load(getClass().getResource("/fxml/login.fxml"));
-            stage.setScene(new Scene(root, 1200, 720));
-            stage.setTitle("FinBasics Underwriter - Login");
+            Navigator.show(Navigator.LOGIN, "FinBasics Underwriter - Login");
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -6,12 +6,10 @@ import javafx.scene.Group;
 import javafx.scene.effect.GaussianBlur;
 import javafx.scene.layout.StackPane;
 import javafx.scene.control.*;
-import javafx.stage.Stage;
+import com.finbasics.Navigator;
 import com.finbasics.model.User;
 import com.finbasics.service.AuthService;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
+import com.finbasics.service.BackgroundLoader;
 
 /**
  * Handles all user interactions on the login screen.
@@ -19,7 +17,7 @@ import javafx.scene.Scene;
  * Controls login modal visibility, blur effects, and credential validation.
  * Connects to login.fxml for UI elements and event bindings.
  */
-public class LoginController {
+public class LoginController implements Navigator.Screen {
 
     @FXML private Group backgroundLayer;
     @FXML private StackPane modalLayer;
@@ -28,6 +26,8 @@ public class LoginController {
     
     private final GaussianBlur blur = new GaussianBlur(24);
     private final AuthService auth = new AuthService();
+    private final BackgroundLoader.Scope tasks = BackgroundLoader.scope();
+    private boolean signingIn;
 
     /**
      * Opens login modal and applies blur effect to background.
@@ -59,30 +59,39 @@ public class LoginController {
      */
     @FXML
     private void signIn() {
-        try {
-            if (usernameField.getText().isBlank() || passwordField.getText().isBlank()) {
-                throw new IllegalArgumentException("Please enter username and password.");
-            }
-            User u = auth.login(usernameField.getText().trim(), passwordField.getText());
-            Stage stage = (Stage) modalLayer.getScene().getWindow();
-            
-            // Load dashboard FXML
-            var dashboardUrl = getClass().getResource("/fxml/dashboard.fxml");
-            if (dashboardUrl == null) {
-                throw new IllegalStateException("Missing /fxml/dashboard.fxml resource");
-            }
-            Parent root = FXMLLoader.load(dashboardUrl);
-            stage.setScene(new Scene(root, 1200, 720));
-            stage.setTitle("Dashboard - " + u.getusername());
-        } catch (IllegalStateException ex) {
-            // Resource not found
-            new Alert(Alert.AlertType.ERROR, "Application error: " + ex.getMessage()).showAndWait();
-        } catch (Exception ex) {
+        if (signingIn) return;
+        if (usernameField.getText().isBlank() || passwordField.getText().isBlank()) {
+            new Alert(Alert.AlertType.ERROR, "Please enter username and password.").showAndWait();
+            return;
+        }
+        // Password hashing is deliberately slow, so verify off the FX thread.
+        signingIn = true;
+        String username = usernameField.getText().trim();
+        String password = passwordField.getText();
+        tasks.load(() -> auth.login(username, password), this::openDashboard, ex -> {
+            signingIn = false;
             // DB auth errors or other exceptions
             new Alert(Alert.AlertType.ERROR, ex.getMessage()).showAndWait();
+        });
+    }
+
+    private void openDashboard(User u) {
+        signingIn = false;
+        try {
+            Navigator.show(Navigator.DASHBOARD, "Dashboard - " + u.getusername());
+        } catch (Exception ex) {
+            new Alert(Alert.AlertType.ERROR, "Application error: " + ex.getMessage()).showAndWait();
         }
     }
 
+    /**
+     * Shown again after logout: start from the closed, empty form.
+     */
+    @Override
+    public void onShow() {
+        closeLogin();
+    }
+
 
     /**
      * Handles "Forgot Password" action.
@@ -1,19 +1,20 @@
 package com.finbasics.controller;
 
-import com.finbasics.model.ApplicationSummary;
+import com.finbasics.Navigator;
+import com.finbasics.model.ApplicationRow;
 import com.finbasics.model.StatementAnalysis;
 import com.finbasics.persistence.ApplicationRepository;
 import com.finbasics.persistence.StatementAnalysisRepository;
 import com.finbasics.service.ApplicationContext;
+import com.finbasics.service.BackgroundLoader;
 import com.finbasics.service.FinancialCalculator;
 import com.finbasics.service.FinancialCalculator.Evaluation;
 import com.finbasics.service.FinancialCalculator.Status;
+import com.finbasics.service.PolicyEngine;
+import com.finbasics.service.PolicySnapshot;
 
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.geometry.Pos;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -21,12 +22,11 @@ import javafx.scene.control.TextArea;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
-import javafx.stage.Stage;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
-public class RiskAssessmentController {
+public class RiskAssessmentController implements Navigator.Screen {
 
     @FXML private Label lblBorrowerName, lblAppNumber, lblProduct, lblAmount;
     @FXML private Label lblRiskGrade, lblRecommendation;
@@ -34,40 +34,60 @@ public class RiskAssessmentController {
     @FXML private VBox eligibilityContainer;
     @FXML private VBox flagsContainer;
     @FXML private TextArea txtComments;
+    @FXML private Button btnBack;
+    @FXML private HBox decisionBar;
 
     private final ApplicationRepository appRepo = new ApplicationRepository();
     private final StatementAnalysisRepository saRepo = new StatementAnalysisRepository();
+    private final BackgroundLoader.Scope tasks = BackgroundLoader.scope();
     private Integer currentAppId;
 
+    private record Assessment(ApplicationRow summary, StatementAnalysis analysis) {}
+
     @FXML
     public void initialize() {
+        tasks.cancelWhenHidden(lblBorrowerName);
+    }
+
+    /**
+     * Rebind the cached view to whichever application is now current.
+     */
+    @Override
+    public void onShow() {
         currentAppId = ApplicationContext.getCurrentApplicationId();
         if (currentAppId == null) return;
 
-        try {
-            ApplicationSummary summary = appRepo.findHeader(currentAppId);
-            StatementAnalysis analysis = saRepo.findByApplicationId(currentAppId);
-
-            if (summary != null && analysis != null) {
-                populateHeader(summary);
-                runAssessment(analysis);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
+        for (Label l : List.of(lblBorrowerName, lblAppNumber, lblProduct, lblAmount)) {
+            l.setText("");
         }
+        lblRiskGrade.setText("-");
+        lblRiskGrade.setStyle("-fx-font-size:48; -fx-font-weight:800; -fx-text-fill:#2c3e50;");
+        eligibilityContainer.getChildren().clear();
+        flagsContainer.getChildren().clear();
+        txtComments.clear();
+        lblRecommendation.setText("Loading assessment\u2026");
+        int appId = currentAppId;
+        tasks.load(() -> new Assessment(appRepo.findHeader(appId), saRepo.findByApplicationId(appId)), a -> {
+            if (a.summary() != null && a.analysis() != null) {
+                populateHeader(a.summary());
+                runAssessment(a.analysis());
+            } else {
+                lblRecommendation.setText("No analysis data available.");
+            }
+        });
     }
 
-    private void populateHeader(ApplicationSummary s) {
-        lblBorrowerName.setText(s.getBorrowerName());
-        lblAppNumber.setText(s.getApplicationNumber());
-        lblProduct.setText(s.getProductType());
-        lblAmount.setText(String.format("$%,.0f", s.getRequestedAmount()));
+    private void populateHeader(ApplicationRow s) {
+        lblBorrowerName.setText(s.borrowerName());
+        lblAppNumber.setText(s.applicationNumber());
+        lblProduct.setText(s.productType());
+        lblAmount.setText(String.format("$%,.0f", s.requestedAmount()));
     }
 
     private void runAssessment(StatementAnalysis sa) {
         // 1. Credit Tier
-        String tier = FinancialCalculator.calculateOverallRiskGrade(sa);
-        lblRiskGrade.setText(tier);
+        FinancialCalculator.Tier tier = FinancialCalculator.grade(sa);
+        lblRiskGrade.setText(tier.label());
         updateRecommendation(tier);
 
         // 2. Eligibility Checks & Flags
@@ -87,11 +107,11 @@ public class RiskAssessmentController {
         }
     }
 
-    private void updateRecommendation(String tier) {
-        if (tier.contains("Tier 1")) {
+    private void updateRecommendation(FinancialCalculator.Tier tier) {
+        if (tier == FinancialCalculator.Tier.TIER_1) {
             lblRiskGrade.setStyle("-fx-font-size:36; -fx-font-weight:800; -fx-text-fill:#27ae60;"); // Green
             lblRecommendation.setText("Strong profile. Recommended for Approval.");
-        } else if (tier.contains("Tier 2")) {
+        } else if (tier == FinancialCalculator.Tier.TIER_2) {
             lblRiskGrade.setStyle("-fx-font-size:36; -fx-font-weight:800; -fx-text-fill:#f39c12;"); // Orange
             lblRecommendation.setText("Moderate risk. Approve with conditions.");
         } else {
@@ -101,23 +121,32 @@ public class RiskAssessmentController {
     }
 
     private void runSmeChecks(StatementAnalysis sa) {
+        PolicySnapshot policy = PolicyEngine.current();
+        double minDscr = policy.get(PolicySnapshot.SME_DSCR_MIN);
+        double minCurrentRatio = policy.get(PolicySnapshot.SME_CURRENT_RATIO_MIN);
+
         // Eligibility
-        addCheck("Minimum DSCR >= 1.25x", sa.getDscr() >= 1.25);
+        addCheck(String.format("Minimum DSCR >= %.2fx", minDscr), sa.getDscr() >= minDscr);
         addCheck("Positive Net Income", sa.getNetIncome() > 0);
-        addCheck("Current Ratio >= 1.0", sa.getCurrentRatio() >= 1.0);
+        addCheck(String.format("Current Ratio >= %.2f", minCurrentRatio), sa.getCurrentRatio() >= minCurrentRatio);
 
         // Flags
         checkFlag(FinancialCalculator.evaluateSmeDscr(sa.getDscr()));
         checkFlag(FinancialCalculator.evaluateSmeLeverage(sa.getDebtToEquity()));
         checkFlag(FinancialCalculator.evaluateSmeProfitability(sa.getNetMargin()));
-        if (sa.getDso() > 90) addFlag("Efficiency Warning", "DSO is high (" + String.format("%.0f", sa.getDso()) + " days), indicating slow collections.");
+        if (sa.getDso() > policy.get(PolicySnapshot.SME_DSO_MAX)) addFlag("Efficiency Warning", "DSO is high (" + String.format("%.0f", sa.getDso()) + " days), indicating slow collections.");
     }
 
     private void runConsumerChecks(StatementAnalysis sa) {
+        PolicySnapshot policy = PolicyEngine.current();
+        double minScore = policy.get(PolicySnapshot.CONSUMER_CREDIT_SCORE_MIN);
+        double maxDti = policy.get(PolicySnapshot.CONSUMER_DTI_MAX);
+        double maxLtv = policy.get(PolicySnapshot.CONSUMER_LTV_MAX);
+
         // Eligibility
-        addCheck("Credit Score >= 640", sa.getCreditScore() >= 640);
-        addCheck("DTI Ratio <= 43%", sa.getDti() <= 0.43);
-        if (sa.getLtv() > 0) addCheck("LTV <= 90%", sa.getLtv() <= 0.90);
+        addCheck(String.format("Credit Score >= %.0f", minScore), sa.getCreditScore() >= minScore);
+        addCheck(String.format("DTI Ratio <= %.0f%%", maxDti * 100), sa.getDti() <= maxDti);
+        if (sa.getLtv() > 0) addCheck(String.format("LTV <= %.0f%%", maxLtv * 100), sa.getLtv() <= maxLtv);
 
         // Flags
         checkFlag(FinancialCalculator.evaluateConsumerDti(sa.getDti()));
@@ -171,21 +200,35 @@ public class RiskAssessmentController {
             new Alert(Alert.AlertType.WARNING, "Please enter final comments.").showAndWait();
             return;
         }
-        try {
-            appRepo.updateStatus(currentAppId, status);
-            new Alert(Alert.AlertType.INFORMATION, "Status updated: " + status).showAndWait();
+        if (currentAppId == null || decisionBar.isDisabled()) return;
+        int appId = currentAppId;
+        // Not a screen load: the decision must finish and be reported even if it is slow.
+        setDeciding(true);
+        BackgroundLoader.write(() -> {
+            appRepo.updateStatus(appId, status);
+            return status;
+        }, done -> {
+            setDeciding(false);
+            new Alert(Alert.AlertType.INFORMATION, "Status updated: " + done).showAndWait();
             goDashboard();
-        } catch (Exception e) { e.printStackTrace(); }
+        }, e -> {
+            e.printStackTrace();
+            setDeciding(false);
+            new Alert(Alert.AlertType.ERROR, "Could not update status: " + e.getMessage()).showAndWait();
+        });
+    }
+
+    private void setDeciding(boolean deciding) {
+        btnBack.setDisable(deciding);
+        decisionBar.setDisable(deciding);
     }
 
-    @FXML private void goBack() { loadScene("/fxml/applicant_detail.fxml"); }
-    private void goDashboard() { loadScene("/fxml/dashboard.fxml"); }
+    @FXML private void goBack() { show(Navigator.APPLICANT_DETAIL); }
+    private void goDashboard() { show(Navigator.DASHBOARD); }
 
-    private void loadScene(String fxml) {
+    private void show(String fxml) {
         try {
-            Stage stage = (Stage) lblBorrowerName.getScene().getWindow();
-            Parent root = FXMLLoader.load(getClass().getResource(fxml));
-            stage.setScene(new Scene(root, 1200, 720));
+            Navigator.show(fxml, null);
         } catch (IOException e) { e.printStackTrace(); }
     }
-}
\ No newline at end of file
+}
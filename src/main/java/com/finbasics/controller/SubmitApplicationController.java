@@ -1,17 +1,17 @@
 package com.finbasics.controller;
 
+import com.finbasics.Navigator;
 import com.finbasics.model.NewApplication;
 import com.finbasics.service.ApplicationException;
 import com.finbasics.service.ApplicationService;
+import com.finbasics.service.BackgroundLoader;
+import com.finbasics.service.Session;
+import com.finbasics.service.UserSession;
 
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.FileChooser;
-import javafx.stage.Stage;
 import javafx.geometry.Pos;
 
 import java.io.File;
@@ -30,7 +30,7 @@ public class SubmitApplicationController {
     @FXML private TextField txtConsumerName, txtSsn, txtEmployer, txtIncome;
     @FXML private DatePicker dpEstablished;
     @FXML private Label lblDocType, errorLabel;
-    @FXML private Button backBtn, nextBtn;
+    @FXML private Button backBtn, nextBtn, cancelBtn;
 
     private int currentStep = 1;
     private ToggleGroup typeGroup;
@@ -204,22 +204,37 @@ public class SubmitApplicationController {
     }
 
     private void submitApplication() {
+        NewApplication dto;
         try {
-            NewApplication dto = buildDto();
-            // In a real app, we would upload the 'selectedDocuments' here along with the DTO.
-            // For this prototype, we just simulate the metadata submission.
-            int appId = appService.submitNewApplication(dto);
-            
+            dto = buildDto();
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            errorLabel.setText("Submission Error: " + ex.getMessage());
+            return;
+        }
+        // In a real app, we would upload the 'selectedDocuments' here along with the DTO.
+        // For this prototype, we just simulate the metadata submission.
+        UserSession session = Session.current();
+        setSubmitting(true);
+        BackgroundLoader.write(() -> appService.submitNewApplication(session, dto), appId -> {
             Alert a = new Alert(Alert.AlertType.INFORMATION);
             a.setTitle("Application Submitted");
             a.setHeaderText("Success!");
             a.setContentText("Application ID " + appId + " has been submitted and sent to underwriting for analysis.");
             a.showAndWait();
             goHome();
-        } catch (Exception ex) {
+        }, ex -> {
             ex.printStackTrace();
+            setSubmitting(false);
             errorLabel.setText("Submission Error: " + ex.getMessage());
-        }
+        });
+    }
+
+    private void setSubmitting(boolean submitting) {
+        cancelBtn.setDisable(submitting);
+        backBtn.setDisable(submitting);
+        nextBtn.setDisable(submitting);
+        nextBtn.setText(submitting ? "Submitting\u2026" : "Submit Application");
     }
 
     private NewApplication buildDto() {
@@ -257,9 +272,7 @@ public class SubmitApplicationController {
     
     private void goHome() {
         try {
-            Stage stage = (Stage) nextBtn.getScene().getWindow();
-            Parent root = FXMLLoader.load(getClass().getResource("/fxml/dashboard.fxml"));
-            stage.setScene(new Scene(root, 1200, 720));
+            Navigator.show(Navigator.DASHBOARD, null);
         } catch (IOException e) { e.printStackTrace(); }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,28 @@
+package com.finbasics.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic event counter. Striped, so hot counters don't contend.
+ */
+public class Counter {
+
+    static final Counter NOOP = new Counter() {
+        @Override public void increment() {}
+        @Override public void add(long n) {}
+    };
+
+    private final LongAdder value = new LongAdder();
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long n) {
+        value.add(n);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+}
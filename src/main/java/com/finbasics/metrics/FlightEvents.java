@@ -0,0 +1,151 @@
+package com.finbasics.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Java Flight Recorder events for underwriting operations.
+ *
+ * Each event carries enough to tie a recording back to a specific
+ * application (id, number, borrower type), so GC pauses and lock contention
+ * in the same recording can be lined up against it. Thresholds below are the
+ * defaults when recording with the stock JDK profiles; /finbasics.jfc in the
+ * jar overrides them (see {@link FlightRecording}).
+ *
+ * Usage follows the usual JFR pattern; a disabled event costs a flag check:
+ * <pre>
+ *   FlightEvents.Submit ev = new FlightEvents.Submit();
+ *   ev.begin();
+ *   ...
+ *   if (ev.shouldCommit()) { ev.applicationId = id; ev.commit(); }
+ * </pre>
+ */
+public final class FlightEvents {
+
+    private static final String CATEGORY = "FinBasics";
+
+    private FlightEvents() {}
+
+    @Name("finbasics.Submit")
+    @Label("Application Submit")
+    @Category({CATEGORY, "Underwriting"})
+    @Description("One call to ApplicationService.submitNewApplication, number allocation through commit")
+    @Threshold("0 ms")
+    public static final class Submit extends Event {
+        @Label("Application Id")
+        public int applicationId;
+
+        @Label("Application Number")
+        public String applicationNumber;
+
+        @Label("Borrower Type")
+        public String borrowerType;
+
+        @Label("Product Type")
+        public String productType;
+
+        @Label("Requested Amount")
+        public double requestedAmount;
+
+        @Label("Succeeded")
+        public boolean succeeded;
+    }
+
+    @Name("finbasics.AnalysisBuild")
+    @Label("Analysis Build")
+    @Category({CATEGORY, "Underwriting"})
+    @Description("Building the automatic statement analysis for an application")
+    @Threshold("1 ms")
+    @StackTrace(false)
+    public static final class AnalysisBuild extends Event {
+        @Label("Application Id")
+        public int applicationId;
+
+        @Label("Borrower Type")
+        public String borrowerType;
+    }
+
+    @Name("finbasics.RiskGrade")
+    @Label("Risk Grade")
+    @Category({CATEGORY, "Underwriting"})
+    @Description("Grading one analysis against the current policy snapshot")
+    @Threshold("0 ms")
+    @StackTrace(false)
+    public static final class RiskGrade extends Event {
+        @Label("Application Id")
+        public int applicationId;
+
+        @Label("Borrower Type")
+        public String borrowerType;
+
+        @Label("Tier")
+        public int tier;
+
+        @Label("Policy Version")
+        public long policyVersion;
+    }
+
+    @Name("finbasics.StatusChange")
+    @Label("Status Change")
+    @Category({CATEGORY, "Underwriting"})
+    @Description("Application status update statement")
+    @Threshold("0 ms")
+    public static final class StatusChange extends Event {
+        @Label("Application Id")
+        public int applicationId;
+
+        @Label("New Status")
+        public String status;
+    }
+
+    @Name("finbasics.Login")
+    @Label("Login")
+    @Category({CATEGORY, "Security"})
+    @Description("AuthService.login, including user lookup, password verification and audit")
+    @Threshold("0 ms")
+    @StackTrace(false)
+    public static final class Login extends Event {
+        @Label("Username")
+        public String username;
+
+        @Label("Succeeded")
+        public boolean succeeded;
+    }
+
+    @Name("finbasics.Bcrypt")
+    @Label("BCrypt")
+    @Category({CATEGORY, "Security"})
+    @Description("BCrypt password hash or verification")
+    @Threshold("0 ms")
+    @StackTrace(false)
+    public static final class Bcrypt extends Event {
+        @Label("Operation")
+        public String operation;
+
+        @Label("Work Factor")
+        public int workFactor;
+    }
+
+    @Name("finbasics.JdbcStatement")
+    @Label("JDBC Statement")
+    @Category({CATEGORY, "Database"})
+    @Description("One statement execution; for queries, through the last row read or close of the result set")
+    @Threshold("10 ms")
+    public static final class JdbcStatement extends Event {
+        @Label("SQL")
+        @Description("Statement text with literals replaced and placeholder lists collapsed")
+        public String sql;
+
+        @Label("Operation")
+        public String operation;
+
+        @Label("Rows")
+        @Description("Rows read for queries, rows changed for updates, -1 when unknown")
+        public long rows;
+    }
+}
@@ -0,0 +1,90 @@
+package com.finbasics.metrics;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Continuous flight recording using the profile shipped in the jar.
+ *
+ * Start the application with -Dfinbasics.jfr.file=/path/recording.jfr to keep
+ * a rolling on-disk recording (JDK "default" profile plus /finbasics.jfc)
+ * that is written to that file at exit, or on demand with
+ * {@code jcmd <pid> JFR.dump name=finbasics}. finbasics.jfr.maxAgeMin
+ * (default 60) and finbasics.jfr.maxSizeMb (default 250) bound the buffer.
+ *
+ * Without the property nothing is started here; a recording started from the
+ * command line or jcmd still captures {@link FlightEvents} with the
+ * thresholds declared on the event classes. To use the shipped thresholds
+ * that way, extract the profile with {@link #exportProfile(Path)} and pass
+ * {@code -XX:StartFlightRecording:settings=default,settings=finbasics.jfc}.
+ */
+public final class FlightRecording {
+
+    static final String PROFILE = "/finbasics.jfc";
+    private static final String NAME = "finbasics";
+
+    private static Recording recording;
+
+    private FlightRecording() {}
+
+    /**
+     * Start the continuous recording if finbasics.jfr.file is set. Returns
+     * false when not configured or JFR is unavailable; never throws.
+     */
+    public static synchronized boolean startIfConfigured() {
+        String file = System.getProperty("finbasics.jfr.file");
+        if (file == null || file.isBlank() || recording != null) return recording != null;
+        try {
+            Recording r = new Recording(settings());
+            r.setName(NAME);
+            r.setToDisk(true);
+            r.setMaxAge(Duration.ofMinutes(Long.getLong("finbasics.jfr.maxAgeMin", 60)));
+            r.setMaxSize(Long.getLong("finbasics.jfr.maxSizeMb", 250) * 1024 * 1024);
+            r.setDestination(Paths.get(file));
+            r.setDumpOnExit(true);
+            r.start();
+            recording = r;
+            return true;
+        } catch (IOException | ParseException | RuntimeException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * JDK "default" settings with the shipped profile layered on top.
+     */
+    public static Map<String, String> settings() throws IOException, ParseException {
+        Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+        try (InputStream in = FlightRecording.class.getResourceAsStream(PROFILE)) {
+            if (in == null) throw new IOException("Missing " + PROFILE + " on the classpath");
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                settings.putAll(Configuration.create(reader).getSettings());
+            }
+        }
+        return settings;
+    }
+
+    /**
+     * Copy the shipped profile to {@code target} for use with -XX:StartFlightRecording or jcmd.
+     */
+    public static void exportProfile(Path target) throws IOException {
+        try (InputStream in = FlightRecording.class.getResourceAsStream(PROFILE)) {
+            if (in == null) throw new IOException("Missing " + PROFILE + " on the classpath");
+            Files.copy(in, target);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.finbasics.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * HDR-style latency histogram over nanoseconds.
+ *
+ * Buckets are log-linear: every power of two is split into 32 equal
+ * sub-buckets, so any recorded value is reported within about 3% of its true
+ * value from 1 ns up to ~292 years, in a fixed 15 KB array. Recording is one
+ * atomic increment plus a max update; nothing is allocated.
+ */
+public class LatencyHistogram {
+
+    /** Percentiles of one histogram, in nanoseconds. */
+    public record Snapshot(long count, long p50, long p90, long p99, long p999, long max, double mean) {}
+
+    static final LatencyHistogram NOOP = new LatencyHistogram() {
+        @Override public void record(long nanos) {}
+        @Override public void recordSince(long startNanos) {}
+    };
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long v = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(v));
+        total.incrementAndGet();
+        sum.addAndGet(v);
+        long m;
+        while (v > (m = max.get()) && !max.compareAndSet(m, v)) {
+            // retry
+        }
+    }
+
+    /** Record the time elapsed since {@link Metrics#start()}. */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public Snapshot snapshot() {
+        long[] c = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            c[i] = counts.get(i);
+            n += c[i];
+        }
+        long mx = max.get();
+        double mean = n == 0 ? 0.0 : (double) sum.get() / total.get();
+        return new Snapshot(n, percentile(c, n, 0.50, mx), percentile(c, n, 0.90, mx), percentile(c, n, 0.99, mx),
+                percentile(c, n, 0.999, mx), mx, mean);
+    }
+
+    static int indexOf(long v) {
+        if (v < SUB_BUCKETS) return (int) v;
+        int magnitude = 63 - Long.numberOfLeadingZeros(v);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int sub = (int) (v >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    /** Highest value that maps to {@code index}. */
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int shift = index / SUB_BUCKETS - 1;
+        long lower = ((long) (SUB_BUCKETS + index % SUB_BUCKETS)) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    private static long percentile(long[] c, long n, double p, long max) {
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(p * n));
+        long seen = 0;
+        for (int i = 0; i < c.length; i++) {
+            seen += c[i];
+            if (seen >= rank) return Math.min(upperBound(i), max);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,143 @@
+package com.finbasics.metrics;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide metrics registry: counters, gauges and latency histograms.
+ *
+ * Off unless started with -Dfinbasics.metrics.enabled=true. When off every
+ * lookup returns a shared no-op instance and {@link #start()} returns 0
+ * without reading the clock, so instrumented code costs a constant check.
+ *
+ * When on, a snapshot of everything is written every
+ * finbasics.metrics.dumpIntervalSec seconds (default 60; 0 disables) to
+ * finbasics.metrics.dumpFile, or to stdout if no file is set, and once more
+ * at JVM exit.
+ *
+ * Usage:
+ * <pre>
+ *   private static final LatencyHistogram INSERT = Metrics.histogram("repo.analysis.insert");
+ *   long t = Metrics.start();
+ *   ...
+ *   INSERT.recordSince(t);
+ * </pre>
+ */
+public final class Metrics {
+
+    private static final boolean ENABLED = Boolean.getBoolean("finbasics.metrics.enabled");
+
+    private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private static final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    static {
+        if (ENABLED) startReporting();
+    }
+
+    private Metrics() {}
+
+    public static boolean enabled() {
+        return ENABLED;
+    }
+
+    /** Start timestamp for {@link LatencyHistogram#recordSince}; 0 when disabled. */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0L;
+    }
+
+    public static Counter counter(String name) {
+        if (!ENABLED) return Counter.NOOP;
+        return counters.computeIfAbsent(name, n -> new Counter());
+    }
+
+    public static LatencyHistogram histogram(String name) {
+        if (!ENABLED) return LatencyHistogram.NOOP;
+        return histograms.computeIfAbsent(name, n -> new LatencyHistogram());
+    }
+
+    /**
+     * Register (or replace) a gauge sampled at snapshot time. A supplier that
+     * throws is reported as -1.
+     */
+    public static void gauge(String name, LongSupplier supplier) {
+        if (ENABLED) gauges.put(name, supplier);
+    }
+
+    /**
+     * Write the current value of every metric, one per line, sorted by name.
+     */
+    public static void dump(Appendable out) throws IOException {
+        out.append("# metrics ").append(Instant.now().toString()).append('\n');
+        for (Map.Entry<String, Counter> e : new TreeMap<>(counters).entrySet()) {
+            out.append(String.format(Locale.ROOT, "counter   %-40s %d%n", e.getKey(), e.getValue().get()));
+        }
+        for (Map.Entry<String, LongSupplier> e : new TreeMap<>(gauges).entrySet()) {
+            long v;
+            try {
+                v = e.getValue().getAsLong();
+            } catch (RuntimeException ex) {
+                v = -1;
+            }
+            out.append(String.format(Locale.ROOT, "gauge     %-40s %d%n", e.getKey(), v));
+        }
+        for (Map.Entry<String, LatencyHistogram> e : new TreeMap<>(histograms).entrySet()) {
+            LatencyHistogram.Snapshot s = e.getValue().snapshot();
+            if (s.count() == 0) continue;
+            out.append(String.format(Locale.ROOT,
+                    "histogram %-40s count=%d mean=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms p999=%.3fms max=%.3fms%n",
+                    e.getKey(), s.count(), s.mean() / 1e6, s.p50() / 1e6, s.p90() / 1e6, s.p99() / 1e6,
+                    s.p999() / 1e6, s.max() / 1e6));
+        }
+    }
+
+    private static void startReporting() {
+        long interval = Long.getLong("finbasics.metrics.dumpIntervalSec", 60);
+        String file = System.getProperty("finbasics.metrics.dumpFile");
+        Runnable report = () -> writeReport(file);
+        if (interval > 0) {
+            ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "finbasics-metrics");
+                t.setDaemon(true);
+                return t;
+            });
+            timer.scheduleAtFixedRate(report, interval, interval, TimeUnit.SECONDS);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(report, "finbasics-metrics-final"));
+    }
+
+    private static void writeReport(String file) {
+        try {
+            if (file == null) {
+                PrintStream out = System.out;
+                StringBuilder sb = new StringBuilder();
+                dump(sb);
+                out.print(sb);
+                out.flush();
+            } else {
+                Path path = Paths.get(file);
+                try (Writer w = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    dump(w);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+}
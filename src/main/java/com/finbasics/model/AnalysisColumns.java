@@ -0,0 +1,82 @@
+package com.finbasics.model;
+
+import java.util.Arrays;
+
+/**
+ * Struct-of-arrays copy of the statement_analysis columns used for grading.
+ *
+ * One primitive array per metric instead of one object per analysis, so a
+ * whole portfolio can be scored in tight loops over contiguous memory.
+ * Rows are appended with {@link #add}; the arrays grow geometrically.
+ */
+public class AnalysisColumns {
+
+    private int size;
+    private int[] applicationIds;
+    private boolean[] sme;
+    private double[] dscr;
+    private double[] currentRatio;
+    private double[] debtToEquity;
+    private double[] dti;
+    private double[] ltv;
+    private int[] creditScore;
+
+    public AnalysisColumns(int initialCapacity) {
+        int cap = Math.max(16, initialCapacity);
+        applicationIds = new int[cap];
+        sme = new boolean[cap];
+        dscr = new double[cap];
+        currentRatio = new double[cap];
+        debtToEquity = new double[cap];
+        dti = new double[cap];
+        ltv = new double[cap];
+        creditScore = new int[cap];
+    }
+
+    public static AnalysisColumns of(Iterable<StatementAnalysis> analyses) {
+        AnalysisColumns cols = new AnalysisColumns(16);
+        for (StatementAnalysis s : analyses) {
+            cols.add(s.getApplicationId(), "SME".equalsIgnoreCase(s.getBorrowerType()), s.getDscr(),
+                    s.getCurrentRatio(), s.getDebtToEquity(), s.getDti(), s.getLtv(), s.getCreditScore());
+        }
+        return cols;
+    }
+
+    public void add(int applicationId, boolean isSme, double dscr, double currentRatio, double debtToEquity,
+                    double dti, double ltv, int creditScore) {
+        if (size == applicationIds.length) grow();
+        int i = size++;
+        this.applicationIds[i] = applicationId;
+        this.sme[i] = isSme;
+        this.dscr[i] = dscr;
+        this.currentRatio[i] = currentRatio;
+        this.debtToEquity[i] = debtToEquity;
+        this.dti[i] = dti;
+        this.ltv[i] = ltv;
+        this.creditScore[i] = creditScore;
+    }
+
+    private void grow() {
+        int cap = applicationIds.length * 2;
+        applicationIds = Arrays.copyOf(applicationIds, cap);
+        sme = Arrays.copyOf(sme, cap);
+        dscr = Arrays.copyOf(dscr, cap);
+        currentRatio = Arrays.copyOf(currentRatio, cap);
+        debtToEquity = Arrays.copyOf(debtToEquity, cap);
+        dti = Arrays.copyOf(dti, cap);
+        ltv = Arrays.copyOf(ltv, cap);
+        creditScore = Arrays.copyOf(creditScore, cap);
+    }
+
+    public int size() { return size; }
+
+    // Raw column access for scoring loops. Only indexes below size() are valid.
+    public int[] applicationIds() { return applicationIds; }
+    public boolean[] sme() { return sme; }
+    public double[] dscr() { return dscr; }
+    public double[] currentRatio() { return currentRatio; }
+    public double[] debtToEquity() { return debtToEquity; }
+    public double[] dti() { return dti; }
+    public double[] ltv() { return ltv; }
+    public int[] creditScore() { return creditScore; }
+}
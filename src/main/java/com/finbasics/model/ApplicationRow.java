@@ -0,0 +1,42 @@
+package com.finbasics.model;
+
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One application as listed on the Dashboard and returned by header lookups.
+ *
+ * Immutable and flat: the amount is a primitive, the creation time is epoch
+ * nanoseconds, and the low-cardinality columns (borrower type, product,
+ * status) share one String instance per distinct value across all rows.
+ * The table builds JavaFX properties from these fields only for the cells
+ * it is actually drawing.
+ */
+public record ApplicationRow(int id, String applicationNumber, String borrowerType, String borrowerName,
+                             String productType, double requestedAmount, String status, long createdAtEpochNanos) {
+
+    // Status, product and borrower type have a handful of values; the cap
+    // only guards against a column unexpectedly holding free text.
+    private static final int MAX_POOLED = 1024;
+    private static final ConcurrentHashMap<String, String> POOL = new ConcurrentHashMap<>();
+
+    public ApplicationRow {
+        borrowerType = pooled(borrowerType);
+        productType = pooled(productType);
+        status = pooled(status);
+    }
+
+    public Instant createdAt() {
+        return Instant.ofEpochSecond(0, createdAtEpochNanos);
+    }
+
+    /** The shared instance equal to {@code value}. */
+    private static String pooled(String value) {
+        if (value == null) return null;
+        String shared = POOL.get(value);
+        if (shared != null) return shared;
+        if (POOL.size() >= MAX_POOLED) return value;
+        shared = POOL.putIfAbsent(value, value);
+        return shared == null ? value : shared;
+    }
+}
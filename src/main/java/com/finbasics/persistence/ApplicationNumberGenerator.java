@@ -0,0 +1,103 @@
+package com.finbasics.persistence;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Year;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out APP-YYYY-NNNN numbers from a per-year sequence table.
+ *
+ * Numbers are reserved in blocks (hi/lo): one committed write claims
+ * {@code blockSize} values and the block is then consumed from memory with a
+ * single atomic increment. A block is tagged with its year, so the first
+ * request after New Year transparently starts a fresh sequence. Unused values
+ * of a block are lost on restart; numbers are unique, not gap-free.
+ */
+public class ApplicationNumberGenerator {
+
+    static final String SEED_YEAR_SQL = """
+            INSERT OR IGNORE INTO application_number_seq(year, next_value)
+            SELECT ?, COALESCE(MAX(CAST(substr(application_number, 10) AS INTEGER)), 0) + 1
+            FROM applications
+            WHERE application_number >= ? AND application_number < ?
+            """;
+    static final String RESERVE_SQL =
+            "UPDATE application_number_seq SET next_value = next_value + ? WHERE year = ? RETURNING next_value";
+
+    private record Block(int year, AtomicLong next, long limit) {}
+
+    private final int blockSize;
+    private volatile Block current;
+
+    public ApplicationNumberGenerator(int blockSize) {
+        if (blockSize < 1) throw new IllegalArgumentException("blockSize must be positive");
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Build using the finbasics.appnum.blockSize system property (default 100).
+     */
+    public static ApplicationNumberGenerator fromSystemProperties() {
+        return new ApplicationNumberGenerator(Integer.getInteger("finbasics.appnum.blockSize", 100));
+    }
+
+    /**
+     * Next application number. Must be called outside a write transaction:
+     * block reservations commit on their own so a rolled-back submit can never
+     * hand the same block out twice.
+     */
+    public String next() throws SQLException {
+        return next(Year.now().getValue());
+    }
+
+    String next(int year) throws SQLException {
+        if (Database.executor().inWriteTransaction()) {
+            throw new IllegalStateException("Allocate application numbers before opening a transaction");
+        }
+        while (true) {
+            Block b = current;
+            if (b != null && b.year() == year) {
+                long v = b.next().getAndIncrement();
+                if (v < b.limit()) return format(year, v);
+            }
+            synchronized (this) {
+                // Only the first thread to see the exhausted block refills it.
+                if (current == b) {
+                    current = reserve(year);
+                }
+            }
+        }
+    }
+
+    private Block reserve(int year) throws SQLException {
+        long end = Database.write(c -> {
+            String prefix = "APP-" + year + "-";
+            try (PreparedStatement ps = c.prepareStatement(SEED_YEAR_SQL)) {
+                // Start above any number issued by the old MAX(id)+1 scheme.
+                ps.setInt(1, year);
+                ps.setString(2, prefix);
+                ps.setString(3, "APP-" + year + ".");
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = c.prepareStatement(RESERVE_SQL)) {
+                ps.setInt(1, blockSize);
+                ps.setInt(2, year);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) throw new SQLException("No sequence row for year " + year);
+                    return rs.getLong(1);
+                }
+            }
+        });
+        return new Block(year, new AtomicLong(end - blockSize), end);
+    }
+
+    static String format(int year, long value) {
+        StringBuilder sb = new StringBuilder(16).append("APP-").append(year).append('-');
+        for (long pad = 1000; pad > 1 && value < pad; pad /= 10) {
+            sb.append('0');
+        }
+        return sb.append(value).toString();
+    }
+}
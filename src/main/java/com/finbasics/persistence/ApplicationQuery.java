@@ -0,0 +1,222 @@
+package com.finbasics.persistence;
+
+import com.finbasics.model.ApplicationRow;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * What the applications list shows: one sort column plus optional filters.
+ *
+ * Immutable; the {@code with*} methods return changed copies. Pages are
+ * read by {@link ApplicationRepository#findPage} with keyset paging on
+ * (sort column, id), and every sort column has an index in exactly that
+ * order (see migration 7). Continuing after a cursor takes two seeks (see
+ * {@link Part}), so without filters a page costs the same however deep the
+ * user has scrolled; filters on other columns add the rows they skip.
+ *
+ * @param borrowerNamePrefix prefix match on the borrower name, ignoring ASCII case
+ */
+public record ApplicationQuery(SortKey sortKey, boolean descending,
+                               String status, String borrowerType, String productType,
+                               Double minAmount, Double maxAmount, String borrowerNamePrefix) {
+
+    /** Sortable columns, with their position in ApplicationRepository's summary columns. */
+    public enum SortKey {
+        // created_at is stored fixed-width (ApplicationRepository.timestamp), so SQL's text order is time order.
+        CREATED_AT("created_at", 8, Comparator.comparingLong(ApplicationRow::createdAtEpochNanos)),
+        APPLICATION_NUMBER("application_number", 2, Comparator.comparing(ApplicationRow::applicationNumber, ApplicationQuery::compareBinary)),
+        BORROWER_NAME("borrower_name", 4, Comparator.comparing(ApplicationRow::borrowerName, ApplicationQuery::compareBinary)),
+        BORROWER_TYPE("borrower_type", 3, Comparator.comparing(ApplicationRow::borrowerType, ApplicationQuery::compareBinary)),
+        PRODUCT_TYPE("product_type", 5, Comparator.comparing(ApplicationRow::productType, ApplicationQuery::compareBinary)),
+        REQUESTED_AMOUNT("requested_amount", 6, Comparator.comparingDouble(ApplicationRow::requestedAmount)),
+        STATUS("status", 7, Comparator.comparing(ApplicationRow::status, ApplicationQuery::compareBinary));
+
+        final String column;
+        final int resultIndex;
+        private final Comparator<ApplicationRow> order;
+
+        SortKey(String column, int resultIndex, Comparator<ApplicationRow> order) {
+            this.column = column;
+            this.resultIndex = resultIndex;
+            this.order = order;
+        }
+    }
+
+    /**
+     * Which rows a page query reads. After a cursor (key, id) the page is the
+     * rest of the cursor's key in id order, then the rows past that key. A
+     * single {@code (key, id) > (?, ?)} predicate seeks on the key alone, so a
+     * page deep inside a large group (one status, borrower type or product)
+     * would walk every row of the group before the cursor.
+     */
+    enum Part { FIRST, SAME_KEY, PAST_KEY }
+
+    /** The default listing: every application, newest first. */
+    public static final ApplicationQuery NEWEST_FIRST =
+            new ApplicationQuery(SortKey.CREATED_AT, true, null, null, null, null, null, null);
+
+    public ApplicationQuery {
+        if (sortKey == null) throw new IllegalArgumentException("sortKey is required");
+        borrowerNamePrefix = borrowerNamePrefix == null || borrowerNamePrefix.isEmpty() ? null : borrowerNamePrefix;
+    }
+
+    public ApplicationQuery sortedBy(SortKey key, boolean descending) {
+        return new ApplicationQuery(key, descending, status, borrowerType, productType, minAmount, maxAmount, borrowerNamePrefix);
+    }
+
+    public ApplicationQuery withStatus(String status) {
+        return new ApplicationQuery(sortKey, descending, status, borrowerType, productType, minAmount, maxAmount, borrowerNamePrefix);
+    }
+
+    public ApplicationQuery withBorrowerType(String borrowerType) {
+        return new ApplicationQuery(sortKey, descending, status, borrowerType, productType, minAmount, maxAmount, borrowerNamePrefix);
+    }
+
+    public ApplicationQuery withProductType(String productType) {
+        return new ApplicationQuery(sortKey, descending, status, borrowerType, productType, minAmount, maxAmount, borrowerNamePrefix);
+    }
+
+    /** Inclusive bounds; null leaves that side open. */
+    public ApplicationQuery withAmountRange(Double min, Double max) {
+        return new ApplicationQuery(sortKey, descending, status, borrowerType, productType, min, max, borrowerNamePrefix);
+    }
+
+    public ApplicationQuery withBorrowerNamePrefix(String prefix) {
+        return new ApplicationQuery(sortKey, descending, status, borrowerType, productType, minAmount, maxAmount, prefix);
+    }
+
+    /**
+     * The order {@link ApplicationRepository#findPage} returns rows in, for
+     * placing rows that change after they were loaded.
+     */
+    public Comparator<ApplicationRow> comparator() {
+        Comparator<ApplicationRow> order = sortKey.order.thenComparingInt(ApplicationRow::id);
+        return descending ? order.reversed() : order;
+    }
+
+    /** True if {@code row} passes every filter, exactly as the SQL does. */
+    public boolean matches(ApplicationRow row) {
+        return (status == null || status.equals(row.status()))
+                && (borrowerType == null || borrowerType.equals(row.borrowerType()))
+                && (productType == null || productType.equals(row.productType()))
+                && (minAmount == null || row.requestedAmount() >= minAmount)
+                && (maxAmount == null || row.requestedAmount() <= maxAmount)
+                && (borrowerNamePrefix == null || startsWithNoCase(row.borrowerName(), borrowerNamePrefix));
+    }
+
+    /**
+     * SELECT for one part of a page. Parameters, in order, come from {@link #params}.
+     */
+    String sql(String columns, Part part) {
+        StringBuilder sql = new StringBuilder("SELECT " + columns + " FROM applications WHERE 1 = 1");
+        if (status != null) sql.append(" AND status = ?");
+        if (borrowerType != null) sql.append(" AND borrower_type = ?");
+        if (productType != null) sql.append(" AND product_type = ?");
+        if (minAmount != null) sql.append(" AND requested_amount >= ?");
+        if (maxAmount != null) sql.append(" AND requested_amount <= ?");
+        if (borrowerNamePrefix != null) {
+            // A range rather than LIKE, so the NOCASE borrower_name index can seek to it.
+            sql.append(" AND borrower_name COLLATE NOCASE >= ?");
+            if (prefixUpperBound(foldedPrefix()) != null) sql.append(" AND borrower_name COLLATE NOCASE < ?");
+        }
+        String col = sortKey.column;
+        String dir = descending ? " DESC" : "";
+        String past = descending ? " < ?" : " > ?";
+        switch (part) {
+            case FIRST -> sql.append(" ORDER BY ").append(col).append(dir).append(", id").append(dir);
+            case SAME_KEY -> sql.append(" AND ").append(col).append(" = ? AND id").append(past)
+                    .append(" ORDER BY id").append(dir);
+            case PAST_KEY -> sql.append(" AND ").append(col).append(past)
+                    .append(" ORDER BY ").append(col).append(dir).append(", id").append(dir);
+        }
+        return sql.append(" LIMIT ?").toString();
+    }
+
+    List<Object> params(ApplicationRepository.Cursor after, Part part, int limit) {
+        List<Object> params = new ArrayList<>();
+        if (status != null) params.add(status);
+        if (borrowerType != null) params.add(borrowerType);
+        if (productType != null) params.add(productType);
+        if (minAmount != null) params.add(minAmount);
+        if (maxAmount != null) params.add(maxAmount);
+        if (borrowerNamePrefix != null) {
+            String folded = foldedPrefix();
+            params.add(folded);
+            String upper = prefixUpperBound(folded);
+            if (upper != null) params.add(upper);
+        }
+        switch (part) {
+            case FIRST -> { }
+            case SAME_KEY -> {
+                params.add(after.key());
+                params.add(after.id());
+            }
+            case PAST_KEY -> params.add(after.key());
+        }
+        params.add(limit);
+        return params;
+    }
+
+    private String foldedPrefix() {
+        StringBuilder folded = new StringBuilder(borrowerNamePrefix.length());
+        for (int i = 0; i < borrowerNamePrefix.length(); i++) {
+            folded.append(asciiLower(borrowerNamePrefix.charAt(i)));
+        }
+        return folded.toString();
+    }
+
+    /**
+     * The smallest string above every string that starts with {@code prefix}
+     * in code point order, or null if there is none. It is the prefix with
+     * its last code point below U+10FFFF incremented and anything after that
+     * dropped. {@code prefix} must be ASCII-lower-cased, as NOCASE compares.
+     */
+    static String prefixUpperBound(String prefix) {
+        int end = prefix.length();
+        while (end > 0) {
+            int last = prefix.codePointBefore(end);
+            int start = end - Character.charCount(last);
+            if (last < Character.MAX_CODE_POINT) {
+                int next = last + 1;
+                if (next == Character.MIN_SURROGATE) next = Character.MAX_SURROGATE + 1;
+                // NOCASE folds 'A'..'Z' away, so past '@' the next folded character is '['.
+                if (next == 'A') next = '[';
+                return prefix.substring(0, start) + Character.toString(next);
+            }
+            end = start;
+        }
+        return null;
+    }
+
+    /** SQLite's NOCASE: only ASCII letters fold. */
+    static boolean startsWithNoCase(String s, String prefix) {
+        if (s == null || s.length() < prefix.length()) return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (asciiLower(s.charAt(i)) != asciiLower(prefix.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static char asciiLower(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    /**
+     * SQLite's BINARY collation: UTF-8 byte order, which is code point order.
+     * String.compareTo compares UTF-16 units and disagrees above U+FFFF.
+     */
+    static int compareBinary(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            if (ca != cb) return Integer.compare(ca, cb);
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+}
@@ -1,116 +1,369 @@
 package com.finbasics.persistence;
 
-import com.finbasics.model.ApplicationSummary;
+import com.finbasics.metrics.LatencyHistogram;
+import com.finbasics.metrics.FlightEvents;
+import com.finbasics.metrics.Metrics;
+import com.finbasics.model.ApplicationRow;
 import com.finbasics.model.NewApplication;
+import com.finbasics.model.StatementAnalysis;
 
 import java.sql.*;
 import java.time.Instant;
-import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class ApplicationRepository {
 
+    /**
+     * Position after which the next page starts: the sort column value and
+     * id of the last row handed out, exactly as stored.
+     */
+    public record Cursor(Object key, int id) {}
+
+    /** One page of summaries; {@code next} is null on the last page. */
+    public record Page(List<ApplicationRow> rows, Cursor next) {
+        public boolean hasMore() { return next != null; }
+    }
+
+    /** Position in change_seq order: how far a reader has seen changes. */
+    public record ChangeMark(long seq) {
+        /** Before every row. */
+        public static final ChangeMark START = new ChangeMark(0);
+    }
+
+    /** Rows changed after a mark, oldest change first, and the mark to resume from. */
+    public record Delta(List<ApplicationRow> rows, ChangeMark next) {}
+
+    /** Application header with its statement analysis (null if none has been recorded). */
+    public record HeaderWithAnalysis(ApplicationRow header, StatementAnalysis analysis) {}
+
+    private static final LatencyHistogram INSERT_LATENCY = Metrics.histogram("repo.application.insert");
+    private static final LatencyHistogram FIND_HEADER_LATENCY = Metrics.histogram("repo.application.findHeader.load");
+    private static final LatencyHistogram PAGE_LATENCY = Metrics.histogram("repo.application.page");
+    private static final LatencyHistogram BATCH_LATENCY = Metrics.histogram("repo.application.findWithAnalysis");
+    private static final LatencyHistogram UPDATE_STATUS_LATENCY = Metrics.histogram("repo.application.updateStatus");
+    private static final LatencyHistogram CHANGED_SINCE_LATENCY = Metrics.histogram("repo.application.changedSince");
+
+    private static final DateTimeFormatter TIMESTAMP =
+            DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSSSSSSSS'Z'").withZone(ZoneOffset.UTC);
+
+    private static final String SUMMARY_COLUMNS =
+            "id, application_number, borrower_type, borrower_name, product_type, requested_amount, status, created_at";
+    private static final int SUMMARY_COLUMN_COUNT = 8;
+
+    // Package-private so QueryPlanTest can EXPLAIN exactly what we run.
+    static final String FIND_ALL_SQL = "SELECT " + SUMMARY_COLUMNS + " FROM applications ORDER BY created_at DESC";
+    static final String FIND_HEADER_SQL = "SELECT " + SUMMARY_COLUMNS + " FROM applications WHERE id = ?";
+    static String findWithAnalysisSql(int idCount) {
+        return "SELECT a." + SUMMARY_COLUMNS.replace(", ", ", a.") + ", "
+                + "s." + StatementAnalysisRepository.ANALYSIS_COLUMNS.replace(", ", ", s.")
+                + " FROM applications a LEFT JOIN statement_analysis s ON s.application_id = a.id"
+                + " WHERE a.id IN (" + InClause.placeholders(idCount) + ")";
+    }
+    static final String LATEST_CHANGE_SQL = "SELECT MAX(change_seq) FROM applications";
+    static final String CHANGED_SINCE_SQL = "SELECT " + SUMMARY_COLUMNS + ", change_seq FROM applications"
+            + " WHERE change_seq > ? ORDER BY change_seq LIMIT ?";
+    static final String UPDATE_STATUS_SQL = "UPDATE applications SET status = ?, updated_at = ? WHERE id = ?";
+
     // ... (keep existing createApplication and other methods) ...
 
     public int createApplication(NewApplication app, int userId) throws SQLException {
+        return Database.await(createApplicationAsync(app, userId));
+    }
+
+    /**
+     * Queue the application + details insert on the writer thread.
+     * The future completes with the new application id after commit.
+     */
+    public CompletableFuture<Integer> createApplicationAsync(NewApplication app, int userId) {
+        String appNumber;
+        try {
+            appNumber = nextApplicationNumber();
+        } catch (SQLException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return Database.writeAsync(c -> createApplication(c, app, userId, appNumber));
+    }
+
+    /**
+     * Insert the application + details rows on a connection whose transaction
+     * is owned by the caller (see {@link Database#inTransaction}). The number
+     * comes from {@link #nextApplicationNumber()}, allocated beforehand.
+     */
+    public int createApplication(Connection c, NewApplication app, int userId, String appNumber) throws SQLException {
+        long t = Metrics.start();
+        String now = timestamp(Instant.now());
+        int appId;
+
+        try (PreparedStatement ps = c.prepareStatement("""
+                INSERT INTO applications(
+                    application_number, borrower_type, borrower_name, borrower_id_number, 
+                    product_type, requested_amount, status, sla_hours, created_by, created_at, updated_at
+                ) VALUES(?,?,?,?,?,?, 'ANALYSIS_PENDING', 72, ?, ?, ?)
+                """, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setString(1, appNumber);
+            ps.setString(2, app.getBorrowerType());
+            ps.setString(3, app.getBorrowerName());
+            ps.setString(4, app.getBorrowerIdNumber());
+            ps.setString(5, app.getProductType());
+            ps.setDouble(6, app.getRequestedAmount());
+            ps.setInt(7, userId);
+            ps.setString(8, now);
+            ps.setString(9, now);
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (!keys.next()) throw new SQLException("No generated key");
+                appId = keys.getInt(1);
+            }
+        }
+
+        try (PreparedStatement ps = c.prepareStatement("""
+                INSERT INTO application_details(
+                    application_id, business_name, ein, naics_code, date_established, 
+                    guarantor_name, consumer_name, ssn, employer, annual_income
+                ) VALUES(?,?,?,?,?,?,?,?,?,?)
+                """)) {
+            ps.setInt(1, appId);
+            ps.setString(2, app.getBusinessName());
+            ps.setString(3, app.getEin());
+            ps.setString(4, app.getNaicsCode());
+            ps.setString(5, app.getDateEstablishedIso());
+            ps.setString(6, app.getGuarantorName());
+            ps.setString(7, app.getConsumerName());
+            ps.setString(8, app.getSsn());
+            ps.setString(9, app.getEmployer());
+            if (app.getAnnualIncome() != null) ps.setDouble(10, app.getAnnualIncome());
+            else ps.setNull(10, Types.REAL);
+            ps.executeUpdate();
+        }
+        int id = appId;
+        Database.afterCommit(() -> Database.headerCache().invalidate(id));
+        Database.publishAfterCommit(ChangeBus.Kind.CREATED, id);
+        INSERT_LATENCY.recordSince(t);
+        return appId;
+    }
+
+    /**
+     * Allocate the next APP-YYYY-NNNN number. Call before opening the
+     * transaction that inserts the application.
+     */
+    public String nextApplicationNumber() throws SQLException {
+        return Database.applicationNumbers().next();
+    }
+
+    public List<ApplicationRow> findAllSummaries() throws SQLException {
+        List<ApplicationRow> list = new ArrayList<>();
+        try (Connection c = Database.getConnection(); PreparedStatement ps = c.prepareStatement(FIND_ALL_SQL); ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                list.add(mapSummary(rs));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Keyset (seek) pagination over applications, newest first.
+     *
+     * @param after        cursor of the last row of the previous page, or {@code null} for the first page
+     * @param pageSize     maximum rows to return
+     * @param status       optional status filter ({@code null} = any)
+     * @param borrowerType optional borrower type filter ({@code null} = any)
+     */
+    public Page findSummariesPage(Cursor after, int pageSize, String status, String borrowerType) throws SQLException {
+        return findPage(ApplicationQuery.NEWEST_FIRST.withStatus(status).withBorrowerType(borrowerType), after, pageSize);
+    }
+
+    /**
+     * One page of {@code query}, continuing after {@code after} (null for the
+     * first page).
+     */
+    public Page findPage(ApplicationQuery query, Cursor after, int pageSize) throws SQLException {
+        long t = Metrics.start();
         try (Connection c = Database.getConnection()) {
-            c.setAutoCommit(false);
-            try {
-                String now = Instant.now().toString();
-                String appNumber = nextApplicationNumber(c);
-                int appId;
-
-                try (PreparedStatement ps = c.prepareStatement("""
-                        INSERT INTO applications(
-                            application_number, borrower_type, borrower_name, borrower_id_number, 
-                            product_type, requested_amount, status, sla_hours, created_by, created_at, updated_at
-                        ) VALUES(?,?,?,?,?,?, 'ANALYSIS_PENDING', 72, ?, ?, ?)
-                        """, Statement.RETURN_GENERATED_KEYS)) {
-                    ps.setString(1, appNumber);
-                    ps.setString(2, app.getBorrowerType());
-                    ps.setString(3, app.getBorrowerName());
-                    ps.setString(4, app.getBorrowerIdNumber());
-                    ps.setString(5, app.getProductType());
-                    ps.setDouble(6, app.getRequestedAmount());
-                    ps.setInt(7, userId);
-                    ps.setString(8, now);
-                    ps.setString(9, now);
-                    ps.executeUpdate();
-                    try (ResultSet keys = ps.getGeneratedKeys()) {
-                        if (!keys.next()) throw new SQLException("No generated key");
-                        appId = keys.getInt(1);
-                    }
-                }
+            return readPage(c, query, after, pageSize);
+        } finally {
+            PAGE_LATENCY.recordSince(t);
+        }
+    }
+
+    /** {@link #findPage} on a given connection; package-private for tests. */
+    static Page readPage(Connection c, ApplicationQuery query, Cursor after, int pageSize) throws SQLException {
+        // One extra row tells us whether another page exists without a COUNT(*).
+        int want = pageSize + 1;
+        List<ApplicationRow> rows = new ArrayList<>(want);
+        // The cursor must repeat the sort value exactly as stored, so keep the raw column.
+        List<Object> keys = new ArrayList<>(want);
+        if (after == null) {
+            readPart(c, query, ApplicationQuery.Part.FIRST, null, want, rows, keys);
+        } else {
+            readPart(c, query, ApplicationQuery.Part.SAME_KEY, after, want, rows, keys);
+            if (rows.size() < want) {
+                readPart(c, query, ApplicationQuery.Part.PAST_KEY, after, want - rows.size(), rows, keys);
+            }
+        }
+
+        if (rows.size() <= pageSize) {
+            return new Page(rows, null);
+        }
+        rows.remove(pageSize);
+        return new Page(rows, new Cursor(keys.get(pageSize - 1), rows.get(pageSize - 1).id()));
+    }
 
-                try (PreparedStatement ps = c.prepareStatement("""
-                        INSERT INTO application_details(
-                            application_id, business_name, ein, naics_code, date_established, 
-                            guarantor_name, consumer_name, ssn, employer, annual_income
-                        ) VALUES(?,?,?,?,?,?,?,?,?,?)
-                        """)) {
-                    ps.setInt(1, appId);
-                    ps.setString(2, app.getBusinessName());
-                    ps.setString(3, app.getEin());
-                    ps.setString(4, app.getNaicsCode());
-                    ps.setString(5, app.getDateEstablishedIso());
-                    ps.setString(6, app.getGuarantorName());
-                    ps.setString(7, app.getConsumerName());
-                    ps.setString(8, app.getSsn());
-                    ps.setString(9, app.getEmployer());
-                    if (app.getAnnualIncome() != null) ps.setDouble(10, app.getAnnualIncome());
-                    else ps.setNull(10, Types.REAL);
-                    ps.executeUpdate();
+    private static void readPart(Connection c, ApplicationQuery query, ApplicationQuery.Part part, Cursor after,
+                                 int limit, List<ApplicationRow> rows, List<Object> keys) throws SQLException {
+        List<Object> params = query.params(after, part, limit);
+        try (PreparedStatement ps = c.prepareStatement(query.sql(SUMMARY_COLUMNS, part))) {
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(mapSummary(rs));
+                    keys.add(rs.getObject(query.sortKey().resultIndex));
                 }
-                c.commit();
-                return appId;
-            } catch (Exception ex) {
-                c.rollback();
-                throw ex;
-            } finally {
-                c.setAutoCommit(true);
             }
         }
     }
 
-    private String nextApplicationNumber(Connection c) throws SQLException {
-        int year = LocalDate.now().getYear();
-        try (Statement st = c.createStatement(); ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM applications")) {
-            rs.next();
-            return "APP-" + year + "-" + String.format("%04d", rs.getInt(1));
+    static String pageSql(ApplicationQuery query, ApplicationQuery.Part part) {
+        return query.sql(SUMMARY_COLUMNS, part);
+    }
+
+    /**
+     * Mark of the most recent change, or {@link ChangeMark#START} when there
+     * are no applications. Take it before loading a view that is then kept
+     * current with {@link #findChangedSince}.
+     */
+    public ChangeMark latestChange() throws SQLException {
+        try (Connection c = Database.getConnection(); PreparedStatement ps = c.prepareStatement(LATEST_CHANGE_SQL);
+             ResultSet rs = ps.executeQuery()) {
+            // MAX() of an empty table is NULL, which reads as 0: START.
+            return rs.next() ? new ChangeMark(rs.getLong(1)) : ChangeMark.START;
         }
     }
 
-    public List<ApplicationSummary> findAllSummaries() throws SQLException {
-        String sql = "SELECT id, application_number, borrower_type, borrower_name, product_type, requested_amount, status, created_at FROM applications ORDER BY created_at DESC";
-        List<ApplicationSummary> list = new ArrayList<>();
-        try (Connection c = Database.getConnection(); PreparedStatement ps = c.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) {
-                ApplicationSummary s = new ApplicationSummary();
-                s.setId(rs.getInt("id")); s.setApplicationNumber(rs.getString("application_number"));
-                s.setBorrowerType(rs.getString("borrower_type")); s.setBorrowerName(rs.getString("borrower_name"));
-                s.setProductType(rs.getString("product_type")); s.setRequestedAmount(rs.getDouble("requested_amount"));
-                s.setStatus(rs.getString("status")); s.setCreatedAt(rs.getString("created_at"));
-                list.add(s);
+    /**
+     * Up to {@code limit} applications created or updated after {@code since},
+     * in the order they changed. Call again with {@link Delta#next()} until it
+     * returns fewer than {@code limit} rows.
+     */
+    public Delta findChangedSince(ChangeMark since, int limit) throws SQLException {
+        List<ApplicationRow> rows = new ArrayList<>();
+        ChangeMark next = since;
+        long t = Metrics.start();
+        try (Connection c = Database.getConnection(); PreparedStatement ps = c.prepareStatement(CHANGED_SINCE_SQL)) {
+            ps.setLong(1, since.seq());
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ApplicationRow row = mapSummary(rs);
+                    rows.add(row);
+                    next = new ChangeMark(rs.getLong(SUMMARY_COLUMN_COUNT + 1));
+                }
             }
+        } finally {
+            CHANGED_SINCE_LATENCY.recordSince(t);
         }
-        return list;
+        return new Delta(rows, next);
     }
 
-    public ApplicationSummary findHeader(int id) throws SQLException {
-        String sql = "SELECT id, application_number, borrower_type, borrower_name, product_type, requested_amount, status, created_at FROM applications WHERE id = ?";
-        try (Connection c = Database.getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
+    /**
+     * Header for one application, served from {@link Database#headerCache()}
+     * when it has been read before.
+     */
+    public ApplicationRow findHeader(int id) throws SQLException {
+        return Database.headerCache().get(id, ApplicationRepository::loadHeader);
+    }
+
+    private static ApplicationRow loadHeader(int id) throws SQLException {
+        long t = Metrics.start();
+        try (Connection c = Database.getConnection(); PreparedStatement ps = c.prepareStatement(FIND_HEADER_SQL)) {
             ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (!rs.next()) return null;
-                ApplicationSummary s = new ApplicationSummary();
-                s.setId(rs.getInt("id")); s.setApplicationNumber(rs.getString("application_number"));
-                s.setBorrowerType(rs.getString("borrower_type")); s.setBorrowerName(rs.getString("borrower_name"));
-                s.setProductType(rs.getString("product_type")); s.setRequestedAmount(rs.getDouble("requested_amount"));
-                s.setStatus(rs.getString("status")); s.setCreatedAt(rs.getString("created_at"));
-                return s;
+                return mapSummary(rs);
+            }
+        } finally {
+            FIND_HEADER_LATENCY.recordSince(t);
+        }
+    }
+
+    /**
+     * Headers plus analyses for many applications in one pass: a single
+     * LEFT JOIN per chunk of ids instead of two queries per application.
+     * The map iterates in the order the ids were given; unknown ids are skipped.
+     */
+    public Map<Integer, HeaderWithAnalysis> findWithAnalysis(Collection<Integer> ids) throws SQLException {
+        Map<Integer, HeaderWithAnalysis> rows = new LinkedHashMap<>();
+        if (ids.isEmpty()) return rows;
+
+        Map<Integer, HeaderWithAnalysis> found = new HashMap<>(Math.max(16, ids.size() * 4 / 3 + 1));
+        long t = Metrics.start();
+        try (Connection c = Database.getConnection()) {
+            for (List<Integer> chunk : InClause.chunks(ids)) {
+                try (PreparedStatement ps = c.prepareStatement(findWithAnalysisSql(chunk.size()))) {
+                    InClause.bind(ps, chunk);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            ApplicationRow header = mapSummary(rs);
+                            int analysisCol = SUMMARY_COLUMN_COUNT + 1;
+                            rs.getInt(analysisCol);
+                            StatementAnalysis analysis = rs.wasNull()
+                                    ? null : StatementAnalysisRepository.map(rs, analysisCol);
+                            found.put(header.id(), new HeaderWithAnalysis(header, analysis));
+                        }
+                    }
+                }
             }
+        } finally {
+            BATCH_LATENCY.recordSince(t);
+        }
+        for (Integer id : ids) {
+            HeaderWithAnalysis row = found.get(id);
+            if (row != null) rows.put(id, row);
         }
+        return rows;
+    }
+
+    // Index-based: every query selecting SUMMARY_COLUMNS puts them first.
+    private static ApplicationRow mapSummary(ResultSet rs) throws SQLException {
+        return new ApplicationRow(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                rs.getString(5), rs.getDouble(6), rs.getString(7), epochNanos(rs.getString(8)));
+    }
+
+    /**
+     * Application timestamps as stored: UTC with all nine fraction digits, so
+     * text order (what SQL sorts by) is time order (what
+     * {@link ApplicationQuery#comparator()} sorts by). {@link Instant#toString()}
+     * drops trailing zero groups and would not sort correctly.
+     */
+    static String timestamp(Instant at) {
+        return TIMESTAMP.format(at);
+    }
+
+    /**
+     * Parses {@link #timestamp} text; also accepts {@link Instant#toString()}
+     * and SQLite's "yyyy-MM-dd HH:mm:ss" (UTC), which rows written before
+     * migration 9 may still hold.
+     */
+    static long epochNanos(String timestamp) {
+        if (timestamp == null) return 0;
+        Instant at;
+        try {
+            at = Instant.parse(timestamp);
+        } catch (DateTimeParseException e) {
+            at = LocalDateTime.parse(timestamp.replace(' ', 'T')).toInstant(ZoneOffset.UTC);
+        }
+        return at.getEpochSecond() * 1_000_000_000L + at.getNano();
     }
 
     /**
@@ -118,13 +371,34 @@ public class ApplicationRepository {
      * FIX: This was missing in the previous version.
      */
     public void updateStatus(int appId, String newStatus) throws SQLException {
-        String sql = "UPDATE applications SET status = ?, updated_at = ? WHERE id = ?";
-        try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+        Database.await(updateStatusAsync(appId, newStatus));
+    }
+
+    public CompletableFuture<Void> updateStatusAsync(int appId, String newStatus) {
+        return Database.writeAsync(c -> {
+            updateStatus(c, appId, newStatus);
+            return null;
+        });
+    }
+
+    public void updateStatus(Connection c, int appId, String newStatus) throws SQLException {
+        FlightEvents.StatusChange event = new FlightEvents.StatusChange();
+        event.begin();
+        long t = Metrics.start();
+        try (PreparedStatement ps = c.prepareStatement(UPDATE_STATUS_SQL)) {
             ps.setString(1, newStatus);
-            ps.setString(2, Instant.now().toString());
+            ps.setString(2, timestamp(Instant.now()));
             ps.setInt(3, appId);
             ps.executeUpdate();
         }
+        Database.afterCommit(() -> Database.headerCache().invalidate(appId));
+        Database.publishAfterCommit(ChangeBus.Kind.STATUS_UPDATED, appId);
+        UPDATE_STATUS_LATENCY.recordSince(t);
+        event.end();
+        if (event.shouldCommit()) {
+            event.applicationId = appId;
+            event.status = newStatus;
+            event.commit();
+        }
     }
 }
\ No newline at end of file
@@ -1,5 +1,8 @@
 package com.finbasics.persistence;
 
+import com.finbasics.metrics.LatencyHistogram;
+import com.finbasics.metrics.Metrics;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
@@ -7,13 +10,23 @@ import java.time.Instant;
 
 /**
  * Simple append-only audit log writer.
+ * Entries are handed to the group-commit {@link AuditWriter} so callers never wait for disk.
  */
 public class AuditRepository {
 
+    private static final LatencyHistogram SYNC_LATENCY = Metrics.histogram("repo.audit.insert");
+
     public void log(Integer userId, String action, String details) {
-        try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(
-                     "INSERT INTO audit_log(user_id, action, details, ts) VALUES(?,?,?,?)")) {
+        Database.auditWriter().enqueue(userId, action, details);
+    }
+
+    /**
+     * Write an audit row as part of the caller's transaction.
+     */
+    public void log(Connection c, Integer userId, String action, String details) throws SQLException {
+        long t = Metrics.start();
+        try (PreparedStatement ps = c.prepareStatement(
+                "INSERT INTO audit_log(user_id, action, details, ts) VALUES(?,?,?,?)")) {
             if (userId != null) {
                 ps.setInt(1, userId);
             } else {
@@ -23,9 +36,7 @@ public class AuditRepository {
             ps.setString(3, details);
             ps.setString(4, Instant.now().toString());
             ps.executeUpdate();
-        } catch (SQLException e) {
-            // For now just print; in prod you might escalate.
-            e.printStackTrace();
         }
+        SYNC_LATENCY.recordSince(t);
     }
 }
@@ -0,0 +1,201 @@
+package com.finbasics.persistence;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Group-commit writer for the audit_log table.
+ *
+ * Callers drop entries into a bounded in-memory queue and return immediately.
+ * A background thread drains the queue and inserts the rows as multi-row
+ * INSERTs in a single transaction on the database writer thread.
+ */
+public class AuditWriter {
+
+    /** What to do when the queue is full. */
+    public enum OverflowPolicy { BLOCK, DROP }
+
+    /**
+     * Queue depth, drop/failure counts and flush latency.
+     */
+    public record Stats(int queueDepth, int capacity, long enqueued, long dropped, long written,
+                        long failed, long flushes, long lastFlushNanos, long maxFlushNanos, long totalFlushNanos) {
+
+        public double averageFlushMillis() {
+            return flushes == 0 ? 0.0 : totalFlushNanos / 1_000_000.0 / flushes;
+        }
+    }
+
+    record Entry(Integer userId, String action, String details, String ts) {}
+
+    private static final int MAX_BATCH = 500;
+    private static final int ROWS_PER_STATEMENT = 100;
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final BlockingQueue<Entry> queue;
+    private final OverflowPolicy overflow;
+    private final Thread thread;
+    private final Object flushLock = new Object();
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong lastFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private volatile boolean running = true;
+
+    public AuditWriter(int capacity, OverflowPolicy overflow) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.overflow = overflow;
+        this.thread = new Thread(this::drainLoop, "finbasics-audit-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Build from finbasics.audit.queueCapacity / finbasics.audit.overflow system properties.
+     */
+    public static AuditWriter fromSystemProperties() {
+        int capacity = Integer.getInteger("finbasics.audit.queueCapacity", 10_000);
+        OverflowPolicy policy = OverflowPolicy.valueOf(
+                System.getProperty("finbasics.audit.overflow", OverflowPolicy.BLOCK.name()).toUpperCase());
+        return new AuditWriter(capacity, policy);
+    }
+
+    /**
+     * Queue one audit row. Returns false if it was dropped: the queue was full
+     * (DROP), the writer is closed, or its thread has died (BLOCK never waits
+     * on a queue nobody drains).
+     */
+    public boolean enqueue(Integer userId, String action, String details) {
+        Entry e = new Entry(userId, action, details, Instant.now().toString());
+        boolean queued = running && (overflow == OverflowPolicy.BLOCK ? put(e) : queue.offer(e));
+        // close() may have landed after the check, and the drain loop may already have
+        // seen an empty queue and exited. Whoever removes the entry owns it.
+        if (!queued || (!running && queue.remove(e))) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        enqueued.incrementAndGet();
+        return true;
+    }
+
+    private boolean put(Entry e) {
+        try {
+            while (!queue.offer(e, IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (!running || !thread.isAlive()) return false;
+            }
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Block until everything queued before this call has been written.
+     */
+    public void flush() {
+        long target = enqueued.get();
+        synchronized (flushLock) {
+            while (written.get() + failed.get() < target && thread.isAlive()) {
+                try {
+                    flushLock.wait(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop accepting entries, write whatever is queued and stop the thread.
+     */
+    public void close() {
+        running = false;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(queue.size(), queue.size() + queue.remainingCapacity(), enqueued.get(), dropped.get(),
+                written.get(), failed.get(), flushes.get(), lastFlushNanos.get(), maxFlushNanos.get(), totalFlushNanos.get());
+    }
+
+    private void drainLoop() {
+        List<Entry> batch = new ArrayList<>(MAX_BATCH);
+        while (running || !queue.isEmpty()) {
+            try {
+                // Timed poll rather than take(): close() must not interrupt a flush in progress.
+                Entry first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<Entry> batch) {
+        long start = System.nanoTime();
+        try {
+            Database.write(c -> {
+                for (int from = 0; from < batch.size(); from += ROWS_PER_STATEMENT) {
+                    List<Entry> chunk = batch.subList(from, Math.min(batch.size(), from + ROWS_PER_STATEMENT));
+                    try (PreparedStatement ps = c.prepareStatement(insertSql(chunk.size()))) {
+                        int i = 1;
+                        for (Entry e : chunk) {
+                            if (e.userId() != null) ps.setInt(i++, e.userId());
+                            else ps.setNull(i++, java.sql.Types.INTEGER);
+                            ps.setString(i++, e.action());
+                            ps.setString(i++, e.details());
+                            ps.setString(i++, e.ts());
+                        }
+                        ps.executeUpdate();
+                    }
+                }
+                return null;
+            });
+            written.addAndGet(batch.size());
+        } catch (SQLException | RuntimeException e) {
+            // For now just print; in prod you might escalate.
+            failed.addAndGet(batch.size());
+            e.printStackTrace();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            flushes.incrementAndGet();
+            lastFlushNanos.set(elapsed);
+            totalFlushNanos.addAndGet(elapsed);
+            maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+            synchronized (flushLock) {
+                flushLock.notifyAll();
+            }
+        }
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sb = new StringBuilder("INSERT INTO audit_log(user_id, action, details, ts) VALUES ");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("(?,?,?,?)");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,44 @@
+package com.finbasics.persistence;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process notifications of committed changes to applications.
+ *
+ * Repositories publish from {@link Database#afterCommit} hooks, so listeners
+ * only ever hear about data that is already visible to readers, and they run
+ * on the writer thread: a listener must hand real work to another thread.
+ * Changes made by other processes sharing the database file are not seen
+ * here; consumers that care poll {@link ApplicationRepository#findChangedSince}.
+ */
+public final class ChangeBus {
+
+    public enum Kind { CREATED, STATUS_UPDATED, ANALYSIS_INSERTED }
+
+    public record Change(Kind kind, int applicationId) {}
+
+    /** Returned by {@link #subscribe}; closing it stops delivery. */
+    public interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private final CopyOnWriteArrayList<Consumer<Change>> listeners = new CopyOnWriteArrayList<>();
+
+    public Subscription subscribe(Consumer<Change> listener) {
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    /** Deliver {@code change} to every listener; one failing listener does not stop the rest. */
+    public void publish(Change change) {
+        for (Consumer<Change> listener : listeners) {
+            try {
+                listener.accept(change);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.finbasics.persistence;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of SQLite connections.
+ *
+ * Each physical connection is opened once and configured with the session
+ * PRAGMAs (WAL journal, busy_timeout, synchronous, mmap_size, foreign keys).
+ * Callers receive a wrapper whose close() hands the connection back to the
+ * pool instead of closing it, so existing try-with-resources code keeps working.
+ */
+public class ConnectionPool {
+
+    /**
+     * Pool tuning knobs. Defaults can be overridden with system properties
+     * (finbasics.db.poolSize, finbasics.db.busyTimeoutMs, finbasics.db.mmapSize,
+     * finbasics.db.acquireTimeoutMs).
+     */
+    public record Config(int maxSize, int busyTimeoutMs, long mmapSize, long acquireTimeoutMs) {
+
+        public static Config fromSystemProperties() {
+            return new Config(
+                    Integer.getInteger("finbasics.db.poolSize", 8),
+                    Integer.getInteger("finbasics.db.busyTimeoutMs", 5000),
+                    Long.getLong("finbasics.db.mmapSize", 64L * 1024 * 1024),
+                    Long.getLong("finbasics.db.acquireTimeoutMs", 30_000L));
+        }
+    }
+
+    /**
+     * Point-in-time pool metrics.
+     */
+    public record Stats(int maxSize, int open, int active, int idle,
+                        long acquisitions, long waits, long totalWaitNanos, long maxWaitNanos) {
+
+        public double averageWaitMillis() {
+            return waits == 0 ? 0.0 : totalWaitNanos / 1_000_000.0 / waits;
+        }
+    }
+
+    private final String url;
+    private final Config config;
+    private final QueryStats queryStats;
+    private final BlockingQueue<Connection> idle;
+    private final Semaphore permits;
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicLong acquisitions = new AtomicLong();
+    private final AtomicLong waits = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, Config config) {
+        this(url, config, null);
+    }
+
+    /**
+     * Pool whose statements record into {@code queryStats} (null for none).
+     */
+    public ConnectionPool(String url, Config config, QueryStats queryStats) {
+        if (config.maxSize() < 2) {
+            throw new IllegalArgumentException("Pool size must be at least 2 (one writer, one reader)");
+        }
+        this.url = url;
+        this.config = config;
+        this.queryStats = queryStats;
+        this.idle = new ArrayBlockingQueue<>(config.maxSize());
+        this.permits = new Semaphore(config.maxSize(), true);
+    }
+
+    /**
+     * Borrow a connection. Blocks up to the configured acquire timeout when
+     * every connection is in use.
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+
+        if (!permits.tryAcquire()) {
+            long start = System.nanoTime();
+            try {
+                if (!permits.tryAcquire(config.acquireTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                    throw new SQLTimeoutException("Timed out waiting for a database connection");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection", e);
+            }
+            long waited = System.nanoTime() - start;
+            waits.incrementAndGet();
+            totalWaitNanos.addAndGet(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+        }
+
+        try {
+            Connection physical = idle.poll();
+            if (physical == null || physical.isClosed()) {
+                if (physical != null) open.decrementAndGet();
+                physical = openPhysical();
+            }
+            acquisitions.incrementAndGet();
+            return wrap(physical);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Close every idle connection and refuse further borrows. Connections
+     * currently on loan are closed when they are returned.
+     */
+    public void close() {
+        closed = true;
+        Connection c;
+        while ((c = idle.poll()) != null) {
+            closeQuietly(c);
+        }
+    }
+
+    public Stats stats() {
+        int available = permits.availablePermits();
+        int idleCount = idle.size();
+        return new Stats(config.maxSize(), open.get(), config.maxSize() - available, idleCount,
+                acquisitions.get(), waits.get(), totalWaitNanos.get(), maxWaitNanos.get());
+    }
+
+    public Config config() {
+        return config;
+    }
+
+    private Connection openPhysical() throws SQLException {
+        Connection c = DriverManager.getConnection(url);
+        try (Statement st = c.createStatement()) {
+            st.execute("PRAGMA journal_mode = WAL");
+            st.execute("PRAGMA busy_timeout = " + config.busyTimeoutMs());
+            st.execute("PRAGMA synchronous = NORMAL");
+            st.execute("PRAGMA mmap_size = " + config.mmapSize());
+            st.execute("PRAGMA foreign_keys = ON");
+        } catch (SQLException e) {
+            closeQuietly(c);
+            throw e;
+        }
+        open.incrementAndGet();
+        return c;
+    }
+
+    private void release(Connection physical) {
+        try {
+            if (closed || physical.isClosed()) {
+                discard(physical);
+                return;
+            }
+            // Never hand out a connection with a half-finished transaction.
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (!idle.offer(physical)) {
+                discard(physical);
+            }
+        } catch (SQLException e) {
+            discard(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(Connection physical) {
+        closeQuietly(physical);
+        open.decrementAndGet();
+    }
+
+    private static void closeQuietly(Connection c) {
+        try {
+            c.close();
+        } catch (SQLException ignored) {
+            // nothing useful to do while tearing down
+        }
+    }
+
+    private Connection wrap(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledHandler(physical));
+    }
+
+    /**
+     * Routes every call to the physical connection except close(), which
+     * returns it to the pool exactly once. Statements it creates are wrapped
+     * by {@link TracingStatement} while query stats or JDBC flight events
+     * are being recorded.
+     */
+    private final class PooledHandler implements InvocationHandler {
+        private final Connection physical;
+        private boolean returned;
+
+        PooledHandler(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!returned) {
+                        returned = true;
+                        release(physical);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned || physical.isClosed();
+                }
+                case "unwrap" -> {
+                    if (((Class<?>) args[0]).isInstance(physical)) return physical;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled[" + physical + "]";
+                }
+                default -> {
+                    if (returned) throw new SQLException("Connection has been returned to the pool");
+                }
+            }
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            // Statements are traced only while query stats are on or a recording has the JFR event enabled.
+            if (result instanceof Statement st && !(st instanceof CallableStatement) && TracingStatement.enabled(queryStats)) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                return TracingStatement.wrap(st, sql, System.nanoTime() - start, queryStats);
+            }
+            return result;
+        }
+    }
+}
@@ -1,79 +1,339 @@
 package com.finbasics.persistence;
 
+import com.finbasics.metrics.Metrics;
+import com.finbasics.model.ApplicationRow;
+import com.finbasics.model.StatementAnalysis;
 import com.finbasics.security.PasswordHasher;
 
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.sql.*;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Single SQLite database helper.
- * Creates schema under ~/finbasics/finbasics.db and seeds baseline data.
+ * Creates schema under ~/finbasics/finbasics.db via versioned {@link Migration}s.
+ * Connections are served from a bounded {@link ConnectionPool}; writes are
+ * serialized through a single writer thread (see {@link DatabaseExecutor}).
  */
 public class Database {
 
     private static String dbPath;
+    private static volatile ConnectionPool pool;
+    private static volatile DatabaseExecutor executor;
+    private static volatile AuditWriter auditWriter;
+    private static volatile QueryStats queryStats;
+    private static Path queryStatsFile;
+    private static volatile ApplicationNumberGenerator applicationNumbers;
+    private static volatile ReadCache<Integer, ApplicationRow> headerCache;
+    private static volatile ReadCache<Integer, StatementAnalysis> analysisCache;
+    private static boolean shutdownHookInstalled;
+    // Outlives init/shutdown so screens can subscribe before the database opens.
+    private static final ChangeBus CHANGES = new ChangeBus();
     private static final String JDBC_PREFIX = "jdbc:sqlite:";
 
+    /**
+     * Secondary indexes of the first index set. Index changes ship as new
+     * migrations; QueryPlanTest guards every repository query against
+     * falling back to a full table scan.
+     */
+    static final String[] INDEXES = {
+            "CREATE INDEX IF NOT EXISTS idx_applications_created_at ON applications(created_at)",
+            "CREATE INDEX IF NOT EXISTS idx_applications_status_created ON applications(status, created_at)",
+            "CREATE INDEX IF NOT EXISTS idx_applications_type_created ON applications(borrower_type, created_at)",
+            "CREATE INDEX IF NOT EXISTS idx_applications_created_by ON applications(created_by)",
+            "CREATE INDEX IF NOT EXISTS idx_applications_borrower_id ON applications(borrower_id_number)",
+            "CREATE INDEX IF NOT EXISTS idx_audit_log_ts ON audit_log(ts)",
+            "CREATE INDEX IF NOT EXISTS idx_audit_log_user ON audit_log(user_id)",
+            "CREATE INDEX IF NOT EXISTS idx_documents_application ON documents(application_id)",
+            "CREATE INDEX IF NOT EXISTS idx_tasks_application ON tasks(application_id)"
+    };
+
+    static final String ADMIN_EXISTS_SQL = "SELECT COUNT(*) FROM users WHERE username = ?";
+
     /**
      * Initialize database: create folder, schema and seed data.
      */
     public static void init() {
+        init(Paths.get(System.getProperty("user.home"), "finbasics", "finbasics.db"));
+    }
+
+    /**
+     * Initialize against an explicit database file (headless tools, tests).
+     */
+    public static synchronized void init(Path dbFile) {
         try {
-            Path dir = Paths.get(System.getProperty("user.home"), "finbasics");
+            Path dir = dbFile.toAbsolutePath().getParent();
             if (!Files.exists(dir)) {
                 Files.createDirectories(dir);
             }
-            dbPath = dir.resolve("finbasics.db").toString();
+            shutdown();
+            dbPath = dbFile.toAbsolutePath().toString();
+            queryStats = QueryStats.fromSystemProperties(dir);
+            queryStatsFile = queryStatsFile(dbFile);
+            pool = new ConnectionPool(JDBC_PREFIX + dbPath, ConnectionPool.Config.fromSystemProperties(), queryStats);
 
             try (Connection c = getConnection()) {
-                // enforce foreign keys
-                try (Statement st = c.createStatement()) {
-                    st.execute("PRAGMA foreign_keys = ON;");
-                }
-                createSchema(c);
-                seedAdmin(c);
-                seedPolicies(c);
+                // Fast no-op when the file is already at the latest version.
+                new SchemaMigrator(MIGRATIONS).migrate(c);
+            }
+            executor = new DatabaseExecutor(pool);
+            auditWriter = AuditWriter.fromSystemProperties();
+            applicationNumbers = ApplicationNumberGenerator.fromSystemProperties();
+            headerCache = new ReadCache<>(Integer.getInteger("finbasics.cache.headers", 1024));
+            analysisCache = new ReadCache<>(Integer.getInteger("finbasics.cache.analyses", 1024));
+            registerGauges();
+            if (!shutdownHookInstalled) {
+                // Flush queued audit rows even if the app exits without stop().
+                Runtime.getRuntime().addShutdownHook(new Thread(Database::shutdown, "finbasics-db-shutdown"));
+                shutdownHookInstalled = true;
             }
         } catch (Exception e) {
             throw new RuntimeException("Database initialization failed", e);
         }
     }
 
+    private static void registerGauges() {
+        if (!Metrics.enabled()) return;
+        Metrics.gauge("db.pool.active", () -> poolStats().active());
+        Metrics.gauge("db.pool.idle", () -> poolStats().idle());
+        Metrics.gauge("db.pool.waits", () -> poolStats().waits());
+        Metrics.gauge("db.pool.maxWaitMicros", () -> poolStats().maxWaitNanos() / 1000);
+        Metrics.gauge("db.writer.pending", () -> executor().pendingWrites());
+        Metrics.gauge("audit.queue.depth", () -> auditWriter().stats().queueDepth());
+        Metrics.gauge("audit.dropped", () -> auditWriter().stats().dropped());
+        Metrics.gauge("audit.failed", () -> auditWriter().stats().failed());
+        Metrics.gauge("cache.header.hits", () -> headerCache().stats().hits());
+        Metrics.gauge("cache.header.misses", () -> headerCache().stats().misses());
+        Metrics.gauge("cache.header.evictions", () -> headerCache().stats().evictions());
+        Metrics.gauge("cache.analysis.hits", () -> analysisCache().stats().hits());
+        Metrics.gauge("cache.analysis.misses", () -> analysisCache().stats().misses());
+        Metrics.gauge("cache.analysis.evictions", () -> analysisCache().stats().evictions());
+    }
+
     /**
-     * Obtain a new connection.
+     * Borrow a pooled connection. Closing it returns it to the pool.
      */
     public static Connection getConnection() throws SQLException {
-        if (dbPath == null) {
+        ConnectionPool p = pool;
+        if (p == null) {
+            throw new IllegalStateException("Database.init() was not called");
+        }
+        return p.borrow();
+    }
+
+    /**
+     * Current pool metrics (wait time, active/idle connections).
+     */
+    public static ConnectionPool.Stats poolStats() {
+        ConnectionPool p = pool;
+        if (p == null) {
             throw new IllegalStateException("Database.init() was not called");
         }
-        return DriverManager.getConnection(JDBC_PREFIX + dbPath);
+        return p.stats();
+    }
+
+    /**
+     * Per-statement timings (finbasics.db.queryStats), or null when disabled.
+     */
+    public static QueryStats queryStats() {
+        return queryStats;
+    }
+
+    /**
+     * Where query stats for {@code dbFile} are saved at shutdown and read by DbCheck.
+     */
+    public static Path queryStatsFile(Path dbFile) {
+        return dbFile.toAbsolutePath().resolveSibling("query-stats.tsv");
+    }
+
+    /**
+     * The single-writer / multi-reader executor.
+     */
+    public static DatabaseExecutor executor() {
+        DatabaseExecutor e = executor;
+        if (e == null) {
+            throw new IllegalStateException("Database.init() was not called");
+        }
+        return e;
+    }
+
+    /**
+     * The group-commit audit log writer.
+     */
+    public static AuditWriter auditWriter() {
+        AuditWriter w = auditWriter;
+        if (w == null) {
+            throw new IllegalStateException("Database.init() was not called");
+        }
+        return w;
+    }
+
+    /**
+     * Block-allocating APP-YYYY-NNNN number generator.
+     */
+    public static ApplicationNumberGenerator applicationNumbers() {
+        ApplicationNumberGenerator g = applicationNumbers;
+        if (g == null) {
+            throw new IllegalStateException("Database.init() was not called");
+        }
+        return g;
+    }
+
+    /**
+     * Application headers by id (finbasics.cache.headers entries).
+     */
+    public static ReadCache<Integer, ApplicationRow> headerCache() {
+        ReadCache<Integer, ApplicationRow> cache = headerCache;
+        if (cache == null) {
+            throw new IllegalStateException("Database.init() was not called");
+        }
+        return cache;
+    }
+
+    /**
+     * Statement analyses by application id (finbasics.cache.analyses entries).
+     */
+    public static ReadCache<Integer, StatementAnalysis> analysisCache() {
+        ReadCache<Integer, StatementAnalysis> cache = analysisCache;
+        if (cache == null) {
+            throw new IllegalStateException("Database.init() was not called");
+        }
+        return cache;
+    }
+
+    /**
+     * Committed application changes; see {@link ChangeBus}.
+     */
+    public static ChangeBus changes() {
+        return CHANGES;
+    }
+
+    /**
+     * Publish {@code kind} for {@code applicationId} once the current write
+     * transaction commits.
+     */
+    public static void publishAfterCommit(ChangeBus.Kind kind, int applicationId) {
+        afterCommit(() -> CHANGES.publish(new ChangeBus.Change(kind, applicationId)));
+    }
+
+    /**
+     * Run {@code action} after the current write transaction commits, or now
+     * when not inside one.
+     */
+    public static void afterCommit(Runnable action) {
+        executor().afterCommit(action);
+    }
+
+    /**
+     * Queue a write on the writer thread. Completes after commit.
+     */
+    public static <T> CompletableFuture<T> writeAsync(SqlWork<T> work) {
+        return executor().write(work);
+    }
+
+    /**
+     * Run a read on the reader pool.
+     */
+    public static <T> CompletableFuture<T> readAsync(SqlWork<T> work) {
+        return executor().read(work);
+    }
+
+    /**
+     * Queue a write and wait for it to commit, rethrowing its SQLException.
+     */
+    public static <T> T write(SqlWork<T> work) throws SQLException {
+        return await(writeAsync(work));
+    }
+
+    /**
+     * Run a unit of work in a single transaction on the writer thread: every
+     * statement issued through {@code c} commits together or not at all.
+     * Repository methods that take a {@link Connection} join this transaction.
+     */
+    public static <T> T inTransaction(SqlWork<T> work) throws SQLException {
+        return write(work);
+    }
+
+    /**
+     * Wait for a database future, unwrapping the original SQLException.
+     */
+    public static <T> T await(CompletableFuture<T> future) throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the database", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sql) throw sql;
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw new SQLException(cause);
+        }
     }
 
-    private static void createSchema(Connection c) throws SQLException {
-        try (Statement st = c.createStatement()) {
+    /**
+     * Drain pending writes and close all pooled connections. Safe to call more than once.
+     */
+    public static synchronized void shutdown() {
+        applicationNumbers = null;
+        headerCache = null;
+        analysisCache = null;
+        if (auditWriter != null) {
+            auditWriter.close();
+            auditWriter = null;
+        }
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+        if (queryStats != null) {
+            try {
+                queryStats.save(queryStatsFile);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            queryStats = null;
+        }
+    }
 
+    /**
+     * Baseline tables. Every statement is idempotent so databases created
+     * before migrations existed (user_version 0) upgrade in place.
+     */
+    private static final String[] BASELINE_TABLES = {
             // USERS
-            st.execute("""
+            """
                 CREATE TABLE IF NOT EXISTS users (
                     id INTEGER PRIMARY KEY AUTOINCREMENT,
                     username TEXT UNIQUE NOT NULL,
                     password_hash TEXT NOT NULL,
                     created_at TEXT NOT NULL
                 )
-            """);
+            """,
 
             // BASIC POLICIES (for DbCheck and future rule engine)
-            st.execute("""
+            """
                 CREATE TABLE IF NOT EXISTS policies (
                     key TEXT PRIMARY KEY,
                     value TEXT NOT NULL
                 )
-            """);
+            """,
 
             // APPLICATIONS
-            st.execute("""
+            """
                 CREATE TABLE IF NOT EXISTS applications (
                     id INTEGER PRIMARY KEY AUTOINCREMENT,
                     application_number TEXT UNIQUE NOT NULL,
@@ -89,10 +349,10 @@ public class Database {
                     updated_at TEXT NOT NULL,
                     FOREIGN KEY (created_by) REFERENCES users(id)
                 )
-            """);
+            """,
 
             // APPLICATION DETAILS (SME vs Consumer fields)
-            st.execute("""
+            """
                 CREATE TABLE IF NOT EXISTS application_details (
                     id INTEGER PRIMARY KEY AUTOINCREMENT,
                     application_id INTEGER NOT NULL UNIQUE,
@@ -107,10 +367,10 @@ public class Database {
                     annual_income REAL,
                     FOREIGN KEY (application_id) REFERENCES applications(id) ON DELETE CASCADE
                 )
-            """);
+            """,
 
             // DOCUMENTS (not used yet, but ready)
-            st.execute("""
+            """
                 CREATE TABLE IF NOT EXISTS documents (
                     id INTEGER PRIMARY KEY AUTOINCREMENT,
                     application_id INTEGER NOT NULL,
@@ -122,10 +382,10 @@ public class Database {
                     uploaded_at TEXT,
                     FOREIGN KEY (application_id) REFERENCES applications(id) ON DELETE CASCADE
                 )
-            """);
+            """,
 
             // TASKS (future "My Tasks" / SLA handling)
-            st.execute("""
+            """
                 CREATE TABLE IF NOT EXISTS tasks (
                     id INTEGER PRIMARY KEY AUTOINCREMENT,
                     application_id INTEGER NOT NULL,
@@ -135,10 +395,10 @@ public class Database {
                     due_date TEXT,
                     FOREIGN KEY (application_id) REFERENCES applications(id) ON DELETE CASCADE
                 )
-            """);
+            """,
 
             // AUDIT LOG
-            st.execute("""
+            """
                 CREATE TABLE IF NOT EXISTS audit_log (
                     id INTEGER PRIMARY KEY AUTOINCREMENT,
                     user_id INTEGER,
@@ -147,10 +407,10 @@ public class Database {
                     ts TEXT NOT NULL,
                     FOREIGN KEY (user_id) REFERENCES users(id)
                 )
-            """);
+            """,
 
             // STATEMENT ANALYSIS (SME vs CONSUMER aware)
-            st.execute("""
+            """
                 CREATE TABLE IF NOT EXISTS statement_analysis (
                     id INTEGER PRIMARY KEY AUTOINCREMENT,
                     application_id INTEGER NOT NULL UNIQUE,
@@ -192,12 +452,114 @@ public class Database {
                     created_at TEXT NOT NULL,
                     FOREIGN KEY (application_id) REFERENCES applications(id) ON DELETE CASCADE
                 )
-            """);
-        }
+            """
+    };
+
+    /**
+     * Ordered schema history. Append only: never edit a migration that has
+     * shipped, add a new one instead (SchemaMigrator verifies checksums).
+     */
+    static final List<Migration> MIGRATIONS = List.of(
+            Migration.sql(1, "baseline tables and index set", concat(BASELINE_TABLES, INDEXES)),
+            Migration.sql(2, "application number sequence", """
+                CREATE TABLE IF NOT EXISTS application_number_seq (
+                    year INTEGER PRIMARY KEY,
+                    next_value INTEGER NOT NULL
+                )
+            """),
+            Migration.code(3, "seed default policies", Database::seedPolicies),
+            Migration.code(4, "seed admin user", Database::seedAdmin),
+            Migration.sql(5, "policy version counter and rule thresholds", """
+                CREATE TABLE IF NOT EXISTS policy_version (
+                    id INTEGER PRIMARY KEY CHECK (id = 1),
+                    version INTEGER NOT NULL
+                )
+            """,
+            "INSERT OR IGNORE INTO policy_version(id, version) VALUES (1, 1)",
+            """
+                CREATE TRIGGER IF NOT EXISTS policies_bump_version_ins AFTER INSERT ON policies
+                BEGIN UPDATE policy_version SET version = version + 1 WHERE id = 1; END
+            """,
+            """
+                CREATE TRIGGER IF NOT EXISTS policies_bump_version_upd AFTER UPDATE ON policies
+                BEGIN UPDATE policy_version SET version = version + 1 WHERE id = 1; END
+            """,
+            """
+                CREATE TRIGGER IF NOT EXISTS policies_bump_version_del AFTER DELETE ON policies
+                BEGIN UPDATE policy_version SET version = version + 1 WHERE id = 1; END
+            """,
+            // Same values the rule if-chains used to hardcode.
+            """
+                INSERT OR IGNORE INTO policies(key, value) VALUES
+                    ('sme.dscr.strong', '1.50'),
+                    ('sme.dscr.floor', '1.00'),
+                    ('sme.current_ratio.strong', '1.50'),
+                    ('sme.quick_ratio.strong', '1.00'),
+                    ('sme.debt_to_equity.strong', '1.50'),
+                    ('sme.debt_to_equity.max', '3.00'),
+                    ('sme.net_margin.strong', '0.10'),
+                    ('sme.net_margin.min', '0.00'),
+                    ('sme.dso.max', '90'),
+                    ('consumer.dti.strong', '0.35'),
+                    ('consumer.credit_score.strong', '720'),
+                    ('consumer.credit_score.min', '640'),
+                    ('consumer.ltv.strong', '0.70'),
+                    ('grade.tier1.min', '0.85'),
+                    ('grade.tier2.min', '0.65'),
+                    ('grade.tier3.min', '0.40')
+            """),
+            Migration.sql(6, "index for the dashboard's changed-since poll",
+                    "CREATE INDEX IF NOT EXISTS idx_applications_updated_at ON applications(updated_at)"),
+            // One index per sortable column whose (column, rowid) order is exactly the
+            // dashboard's keyset order; application_number already has its UNIQUE index.
+            Migration.sql(7, "indexes for server-side sort and filter",
+                    "CREATE INDEX IF NOT EXISTS idx_applications_amount ON applications(requested_amount)",
+                    "CREATE INDEX IF NOT EXISTS idx_applications_borrower_name ON applications(borrower_name)",
+                    "CREATE INDEX IF NOT EXISTS idx_applications_status ON applications(status)",
+                    "CREATE INDEX IF NOT EXISTS idx_applications_type ON applications(borrower_type)",
+                    "CREATE INDEX IF NOT EXISTS idx_applications_product ON applications(product_type)",
+                    "CREATE INDEX IF NOT EXISTS idx_applications_product_created ON applications(product_type, created_at)"),
+            // updated_at text does not sort in change order (variable-width fractions,
+            // legacy formats), so changes are numbered instead. Writers are serialized
+            // by SQLite, so MAX + 1 is unique and commits in increasing order.
+            Migration.sql(8, "change sequence for the changed-since poll",
+                    "ALTER TABLE applications ADD COLUMN change_seq INTEGER NOT NULL DEFAULT 0",
+                    "UPDATE applications SET change_seq = id",
+                    "CREATE INDEX IF NOT EXISTS idx_applications_change_seq ON applications(change_seq)",
+                    """
+                CREATE TRIGGER IF NOT EXISTS applications_change_seq_ins AFTER INSERT ON applications
+                BEGIN
+                    UPDATE applications SET change_seq = (SELECT MAX(change_seq) FROM applications) + 1
+                    WHERE id = NEW.id;
+                END
+            """,
+                    // Every column but the timestamps and change_seq itself, so the
+                    // trigger cannot re-fire and a timestamp rewrite is not a change.
+                    """
+                CREATE TRIGGER IF NOT EXISTS applications_change_seq_upd AFTER UPDATE OF
+                    application_number, borrower_type, borrower_name, borrower_id_number,
+                    product_type, requested_amount, status, sla_hours, created_by
+                ON applications
+                BEGIN
+                    UPDATE applications SET change_seq = (SELECT MAX(change_seq) FROM applications) + 1
+                    WHERE id = NEW.id;
+                END
+            """,
+                    "DROP INDEX IF EXISTS idx_applications_updated_at"),
+            Migration.code(9, "fixed-width application timestamps", Database::normalizeApplicationTimestamps),
+            // The borrower name search ignores case; a range seek needs an index in that collation.
+            Migration.sql(10, "case-insensitive borrower name index",
+                    "CREATE INDEX IF NOT EXISTS idx_applications_borrower_name_nocase ON applications(borrower_name COLLATE NOCASE)")
+    );
+
+    private static String[] concat(String[] a, String[] b) {
+        String[] all = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, all, a.length, b.length);
+        return all;
     }
 
-    private static void seedAdmin(Connection c) throws SQLException {
-        try (PreparedStatement ps = c.prepareStatement("SELECT COUNT(*) FROM users WHERE username = ?")) {
+    private static Void seedAdmin(Connection c) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(ADMIN_EXISTS_SQL)) {
             ps.setString(1, "admin");
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next() && rs.getInt(1) == 0) {
@@ -211,9 +573,45 @@ public class Database {
                 }
             }
         }
+        return null;
+    }
+
+    /**
+     * Rewrite created_at/updated_at in {@link ApplicationRepository#timestamp}
+     * form, so sorting the text sorts by time. Package-private for tests.
+     */
+    static Void normalizeApplicationTimestamps(Connection c) throws SQLException {
+        record Stamps(int id, String createdAt, String updatedAt) {}
+        // Collected first so the updates do not disturb the scan.
+        List<Stamps> changed = new ArrayList<>();
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT id, created_at, updated_at FROM applications")) {
+            while (rs.next()) {
+                String created = fixedWidth(rs.getString(2));
+                String updated = fixedWidth(rs.getString(3));
+                if (!created.equals(rs.getString(2)) || !updated.equals(rs.getString(3))) {
+                    changed.add(new Stamps(rs.getInt(1), created, updated));
+                }
+            }
+        }
+        try (PreparedStatement ps = c.prepareStatement("UPDATE applications SET created_at = ?, updated_at = ? WHERE id = ?")) {
+            for (Stamps row : changed) {
+                ps.setString(1, row.createdAt());
+                ps.setString(2, row.updatedAt());
+                ps.setInt(3, row.id());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        return null;
+    }
+
+    private static String fixedWidth(String timestamp) {
+        long nanos = ApplicationRepository.epochNanos(timestamp);
+        return ApplicationRepository.timestamp(Instant.ofEpochSecond(0, nanos));
     }
 
-    private static void seedPolicies(Connection c) throws SQLException {
+    private static Void seedPolicies(Connection c) throws SQLException {
         String[][] defaults = {
                 {"sme.dscr.min", "1.25"},
                 {"sme.current_ratio.min", "1.20"},
@@ -229,5 +627,6 @@ public class Database {
                 ps.executeUpdate();
             }
         }
+        return null;
     }
 }
@@ -0,0 +1,248 @@
+package com.finbasics.persistence;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single-writer / multi-reader execution model for SQLite.
+ *
+ * All INSERT/UPDATE work is queued to one writer thread. When several writes
+ * are waiting, the writer drains them and runs them in one shared transaction,
+ * each inside its own savepoint so a failing write does not take its
+ * neighbours down with it. Reads fan out over a small reader pool.
+ *
+ * Work submitted from the writer thread itself (a write that triggers another
+ * write) runs inline on the current connection and transaction.
+ *
+ * Writes can register {@link #afterCommit} callbacks (cache invalidation);
+ * they run on the writer thread once the batch has committed and before the
+ * write futures complete.
+ *
+ * Anything a unit of work throws, Errors included, fails that write only; the
+ * writer thread keeps going. Should the loop die anyway, the executor stops
+ * accepting work and fails whatever is still queued.
+ */
+public class DatabaseExecutor {
+
+    private static final int MAX_BATCH = 64;
+
+    private final ConnectionPool pool;
+    private final BlockingQueue<WriteTask<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final ExecutorService readers;
+    private final ThreadLocal<Connection> writerConnection = new ThreadLocal<>();
+    // Only touched by the writer thread.
+    private final List<Runnable> commitHooks = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public DatabaseExecutor(ConnectionPool pool) {
+        this.pool = pool;
+        this.writer = new Thread(this::writeLoop, "finbasics-db-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+
+        int readerThreads = Math.max(1, pool.config().maxSize() - 1);
+        AtomicInteger n = new AtomicInteger();
+        this.readers = Executors.newFixedThreadPool(readerThreads, r -> {
+            Thread t = new Thread(r, "finbasics-db-reader-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Queue a write. The future completes after the enclosing transaction commits.
+     */
+    public <T> CompletableFuture<T> write(SqlWork<T> work) {
+        Connection current = writerConnection.get();
+        if (current != null) {
+            // Already on the writer thread inside a transaction: join it.
+            try {
+                return CompletableFuture.completedFuture(work.run(current));
+            } catch (SQLException | RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        if (!running) {
+            return CompletableFuture.failedFuture(new SQLException("Database executor is shut down"));
+        }
+        WriteTask<T> task = new WriteTask<>(work);
+        queue.add(task);
+        // shutdown() may have landed between the check and the add, after the writer's
+        // last drain. Whoever removes the task owns it: the writer runs it, we fail it.
+        if (!running && queue.remove(task)) {
+            task.future.completeExceptionally(new SQLException("Database executor is shut down"));
+        }
+        return task.future;
+    }
+
+    /**
+     * Run a read on the reader pool with its own pooled connection.
+     */
+    public <T> CompletableFuture<T> read(SqlWork<T> work) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            readers.execute(() -> {
+                try (Connection c = pool.borrow()) {
+                    future.complete(work.run(c));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new SQLException("Database executor is shut down", e));
+        }
+        return future;
+    }
+
+    /**
+     * True when the calling thread is the writer running a transaction.
+     */
+    public boolean inWriteTransaction() {
+        return writerConnection.get() != null;
+    }
+
+    /**
+     * Run {@code action} once the current write transaction commits. Dropped
+     * if the write rolls back. Outside a write transaction it runs immediately.
+     */
+    public void afterCommit(Runnable action) {
+        if (writerConnection.get() != null) {
+            commitHooks.add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    public int pendingWrites() {
+        return queue.size();
+    }
+
+    /**
+     * Stop accepting work, finish everything already queued, then stop the threads.
+     */
+    public void shutdown() {
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        readers.shutdown();
+    }
+
+    private void writeLoop() {
+        List<WriteTask<?>> batch = new ArrayList<>(MAX_BATCH);
+        try {
+            while (running || !queue.isEmpty()) {
+                try {
+                    WriteTask<?> first = running ? queue.take() : queue.poll();
+                    if (first == null) break;
+                    batch.add(first);
+                } catch (InterruptedException e) {
+                    // shutdown() interrupts us; loop once more to drain what is left.
+                    continue;
+                }
+                queue.drainTo(batch, MAX_BATCH - 1);
+                runBatch(batch);
+                batch.clear();
+            }
+        } finally {
+            // Empty after a clean shutdown. If the loop died, nothing would ever drain it.
+            running = false;
+            SQLException stopped = new SQLException("Database writer stopped");
+            for (WriteTask<?> task : batch) task.fail(stopped);
+            for (WriteTask<?> task; (task = queue.poll()) != null; ) task.fail(stopped);
+        }
+    }
+
+    private void runBatch(List<WriteTask<?>> batch) {
+        try (Connection c = pool.borrow()) {
+            c.setAutoCommit(false);
+            writerConnection.set(c);
+            try {
+                for (WriteTask<?> task : batch) {
+                    int hooksBefore = commitHooks.size();
+                    if (!task.runIn(c)) {
+                        // The task's savepoint rolled back; so do its callbacks.
+                        commitHooks.subList(hooksBefore, commitHooks.size()).clear();
+                    }
+                }
+                c.commit();
+            } catch (Throwable e) {
+                commitHooks.clear();
+                c.rollback();
+                for (WriteTask<?> task : batch) task.fail(e);
+                return;
+            } finally {
+                writerConnection.remove();
+            }
+            runCommitHooks();
+            for (WriteTask<?> task : batch) task.publish();
+        } catch (Throwable e) {
+            for (WriteTask<?> task : batch) task.fail(e);
+        }
+    }
+
+    private void runCommitHooks() {
+        for (Runnable hook : commitHooks) {
+            try {
+                hook.run();
+            } catch (Throwable e) {
+                // The batch has committed; a failing hook must not fail its writes.
+                e.printStackTrace();
+            }
+        }
+        commitHooks.clear();
+    }
+
+    /**
+     * A queued write plus its outcome, which is only published after commit.
+     */
+    private static final class WriteTask<T> {
+        final SqlWork<T> work;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        T result;
+        Throwable error;
+
+        WriteTask(SqlWork<T> work) {
+            this.work = work;
+        }
+
+        /** Returns false if the work failed and its savepoint was rolled back. */
+        boolean runIn(Connection c) throws SQLException {
+            Savepoint sp = c.setSavepoint();
+            try {
+                result = work.run(c);
+                c.releaseSavepoint(sp);
+                return true;
+            } catch (Throwable e) {
+                c.rollback(sp);
+                c.releaseSavepoint(sp);
+                error = e;
+                return false;
+            }
+        }
+
+        void publish() {
+            if (error != null) future.completeExceptionally(error);
+            else future.complete(result);
+        }
+
+        void fail(Throwable t) {
+            future.completeExceptionally(error != null ? error : t);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.finbasics.persistence;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Helpers for batch lookups with {@code WHERE col IN (?, ?, ...)}.
+ *
+ * Ids are de-duplicated and split into chunks so a single statement never
+ * binds more than {@link #CHUNK_SIZE} parameters.
+ */
+final class InClause {
+
+    static final int CHUNK_SIZE = 500;
+
+    private InClause() {}
+
+    static List<List<Integer>> chunks(Collection<Integer> ids) {
+        List<Integer> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<List<Integer>> chunks = new ArrayList<>((distinct.size() + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        for (int from = 0; from < distinct.size(); from += CHUNK_SIZE) {
+            chunks.add(distinct.subList(from, Math.min(distinct.size(), from + CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+
+    /** "?,?,?" with {@code n} markers. */
+    static String placeholders(int n) {
+        StringBuilder sb = new StringBuilder(n * 2);
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(',');
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+
+    static void bind(PreparedStatement ps, List<Integer> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            ps.setInt(i + 1, ids.get(i));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.finbasics.persistence;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * One ordered schema step. SQL migrations are checksummed over their
+ * statements; code migrations (seed data that needs Java, e.g. BCrypt) are
+ * checksummed over their description, so renaming one counts as a change.
+ */
+public record Migration(int version, String description, List<String> statements, SqlWork<Void> action) {
+
+    public static Migration sql(int version, String description, String... statements) {
+        return new Migration(version, description, List.of(statements), null);
+    }
+
+    public static Migration code(int version, String description, SqlWork<Void> action) {
+        return new Migration(version, description, List.of(), action);
+    }
+
+    void apply(Connection c) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            for (String sql : statements) {
+                st.execute(sql);
+            }
+        }
+        if (action != null) {
+            action.run(c);
+        }
+    }
+
+    public String checksum() {
+        CRC32 crc = new CRC32();
+        crc.update(description.getBytes(StandardCharsets.UTF_8));
+        for (String sql : statements) {
+            // Ignore indentation so reformatting a text block is not a schema change.
+            crc.update(sql.strip().replaceAll("\\s+", " ").getBytes(StandardCharsets.UTF_8));
+        }
+        return Long.toHexString(crc.getValue());
+    }
+}
@@ -0,0 +1,87 @@
+package com.finbasics.persistence;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Access to the policies table and its change counter.
+ *
+ * Triggers on policies bump policy_version on every insert, update or
+ * delete, so "did anything change?" is a single primary-key read. Writes made
+ * through {@link #put} also notify {@link #onChange} listeners once committed.
+ */
+public class PolicyRepository {
+
+    /** All policy rows together with the version they were read at. */
+    public record Policies(long version, Map<String, String> values) {}
+
+    static final String FIND_ALL_SQL = "SELECT key, value FROM policies";
+    static final String VERSION_SQL = "SELECT version FROM policy_version WHERE id = 1";
+    static final String UPSERT_SQL =
+            "INSERT INTO policies(key, value) VALUES(?, ?) ON CONFLICT(key) DO UPDATE SET value = excluded.value";
+
+    private static final CopyOnWriteArrayList<Runnable> LISTENERS = new CopyOnWriteArrayList<>();
+
+    /**
+     * Run {@code listener} after every committed {@link #put}. It runs on the
+     * writer thread, so it must hand real work to another thread.
+     */
+    public static void onChange(Runnable listener) {
+        LISTENERS.add(listener);
+    }
+
+    public long currentVersion() throws SQLException {
+        try (Connection c = Database.getConnection()) {
+            return readVersion(c);
+        }
+    }
+
+    /**
+     * Read every policy and the version in one read transaction so the two
+     * always agree.
+     */
+    public Policies loadAll() throws SQLException {
+        try (Connection c = Database.getConnection()) {
+            c.setAutoCommit(false);
+            long version = readVersion(c);
+            Map<String, String> values = new HashMap<>();
+            try (Statement st = c.createStatement(); ResultSet rs = st.executeQuery(FIND_ALL_SQL)) {
+                while (rs.next()) {
+                    values.put(rs.getString(1), rs.getString(2));
+                }
+            }
+            c.commit();
+            return new Policies(version, values);
+        }
+    }
+
+    public void put(String key, String value) throws SQLException {
+        Database.write(c -> {
+            try (PreparedStatement ps = c.prepareStatement(UPSERT_SQL)) {
+                ps.setString(1, key);
+                ps.setString(2, value);
+                ps.executeUpdate();
+            }
+            Database.afterCommit(PolicyRepository::notifyListeners);
+            return null;
+        });
+    }
+
+    private static void notifyListeners() {
+        for (Runnable listener : LISTENERS) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static long readVersion(Connection c) throws SQLException {
+        try (Statement st = c.createStatement(); ResultSet rs = st.executeQuery(VERSION_SQL)) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+}
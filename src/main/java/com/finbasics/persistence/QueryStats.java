@@ -0,0 +1,196 @@
+package com.finbasics.persistence;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-statement timings keyed by SQL fingerprint ({@link SqlShape}), plus a
+ * slow-query log.
+ *
+ * Enabled with -Dfinbasics.db.queryStats=true; the pool then times every
+ * prepare, execute and row fetch. An execution slower than
+ * finbasics.db.slowQueryMs (default 100) is appended to the slow-query log,
+ * with EXPLAIN QUERY PLAN for the first slow occurrence of each fingerprint.
+ * The table is saved as tab-separated text when the database shuts down, for
+ * {@code DbCheck --top N}.
+ */
+public final class QueryStats {
+
+    /** Totals for one fingerprint. Times are in nanoseconds. */
+    public record Entry(String fingerprint, long count, long prepareNanos, long executeNanos,
+                        long fetchNanos, long maxNanos, long rows, long slow) {
+
+        public long totalNanos() {
+            return prepareNanos + executeNanos + fetchNanos;
+        }
+
+        public double averageMillis() {
+            return count == 0 ? 0.0 : totalNanos() / 1e6 / count;
+        }
+    }
+
+    private static final class Stat {
+        final LongAdder count = new LongAdder();
+        final LongAdder prepareNanos = new LongAdder();
+        final LongAdder executeNanos = new LongAdder();
+        final LongAdder fetchNanos = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LongAdder slow = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        final AtomicBoolean explained = new AtomicBoolean();
+    }
+
+    private static final String HEADER = "fingerprint\tcount\tprepare_ns\texecute_ns\tfetch_ns\tmax_ns\trows\tslow";
+
+    private final Map<String, Stat> stats = new ConcurrentHashMap<>();
+    private final long slowNanos;
+    private final Path slowLog;
+
+    public QueryStats(long slowMillis, Path slowLog) {
+        this.slowNanos = slowMillis * 1_000_000L;
+        this.slowLog = slowLog;
+    }
+
+    /**
+     * Build from finbasics.db.queryStats / finbasics.db.slowQueryMs /
+     * finbasics.db.slowQueryLog (default slow-queries.log in {@code dir}),
+     * or null when disabled.
+     */
+    public static QueryStats fromSystemProperties(Path dir) {
+        if (!Boolean.getBoolean("finbasics.db.queryStats")) return null;
+        String log = System.getProperty("finbasics.db.slowQueryLog");
+        return new QueryStats(Long.getLong("finbasics.db.slowQueryMs", 100),
+                log != null ? Path.of(log) : dir.resolve("slow-queries.log"));
+    }
+
+    /**
+     * Record one execution. {@code c} is the physical connection that ran it,
+     * used to capture the plan on the first slow occurrence.
+     */
+    void record(String sql, long prepareNanos, long executeNanos, long fetchNanos, long rows, Connection c) {
+        String fingerprint = SqlShape.of(sql);
+        Stat s = stats.computeIfAbsent(fingerprint, k -> new Stat());
+        long total = prepareNanos + executeNanos + fetchNanos;
+        s.count.increment();
+        s.prepareNanos.add(prepareNanos);
+        s.executeNanos.add(executeNanos);
+        s.fetchNanos.add(fetchNanos);
+        if (rows > 0) s.rows.add(rows);
+        s.maxNanos.accumulateAndGet(total, Math::max);
+        if (total >= slowNanos) {
+            s.slow.increment();
+            String plan = s.explained.compareAndSet(false, true) ? explain(c, sql) : null;
+            logSlow(fingerprint, total, rows, plan);
+        }
+    }
+
+    /** Every fingerprint seen so far, by total time descending. */
+    public List<Entry> snapshot() {
+        List<Entry> out = new ArrayList<>(stats.size());
+        for (Map.Entry<String, Stat> e : stats.entrySet()) {
+            Stat s = e.getValue();
+            out.add(new Entry(e.getKey(), s.count.sum(), s.prepareNanos.sum(), s.executeNanos.sum(),
+                    s.fetchNanos.sum(), s.maxNanos.get(), s.rows.sum(), s.slow.sum()));
+        }
+        out.sort(Comparator.comparingLong(Entry::totalNanos).reversed());
+        return out;
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    /** Write {@link #snapshot()} as tab-separated text. */
+    public void save(Path file) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write(HEADER);
+            w.newLine();
+            for (Entry e : snapshot()) {
+                // Quoted identifiers keep their own whitespace; the file is one entry per line.
+                w.write(String.join("\t", e.fingerprint().replaceAll("[\t\r\n]", " "), Long.toString(e.count()),
+                        Long.toString(e.prepareNanos()), Long.toString(e.executeNanos()),
+                        Long.toString(e.fetchNanos()), Long.toString(e.maxNanos()),
+                        Long.toString(e.rows()), Long.toString(e.slow())));
+                w.newLine();
+            }
+        }
+    }
+
+    /** Read a file written by {@link #save(Path)}, by total time descending. */
+    public static List<Entry> load(Path file) throws IOException {
+        List<Entry> out = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isEmpty() || line.equals(HEADER)) continue;
+            String[] f = line.split("\t");
+            if (f.length != 8) throw new IOException("Malformed query stats line: " + line);
+            out.add(new Entry(f[0], Long.parseLong(f[1]), Long.parseLong(f[2]), Long.parseLong(f[3]),
+                    Long.parseLong(f[4]), Long.parseLong(f[5]), Long.parseLong(f[6]), Long.parseLong(f[7])));
+        }
+        out.sort(Comparator.comparingLong(Entry::totalNanos).reversed());
+        return out;
+    }
+
+    /** Print the first {@code limit} entries as a table. */
+    public static void print(List<Entry> entries, int limit, Appendable out) throws IOException {
+        out.append(String.format(Locale.ROOT, "%10s %8s %10s %10s %10s %10s %6s  %s%n",
+                "total ms", "count", "avg ms", "max ms", "fetch ms", "rows", "slow", "statement"));
+        for (Entry e : entries.subList(0, Math.min(limit, entries.size()))) {
+            out.append(String.format(Locale.ROOT, "%10.1f %8d %10.3f %10.3f %10.1f %10d %6d  %s%n",
+                    e.totalNanos() / 1e6, e.count(), e.averageMillis(), e.maxNanos() / 1e6,
+                    e.fetchNanos() / 1e6, e.rows(), e.slow(), e.fingerprint()));
+        }
+    }
+
+    private static String explain(Connection c, String sql) {
+        String head = sql.stripLeading().toUpperCase(Locale.ROOT);
+        if (!(head.startsWith("SELECT") || head.startsWith("WITH") || head.startsWith("UPDATE")
+                || head.startsWith("DELETE") || head.startsWith("INSERT"))) {
+            return null;
+        }
+        // Unbound parameters plan as NULL, which is enough to see index use.
+        StringBuilder plan = new StringBuilder();
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("EXPLAIN QUERY PLAN " + sql)) {
+            while (rs.next()) {
+                plan.append("    ").append(rs.getString("detail")).append('\n');
+            }
+        } catch (SQLException e) {
+            plan.append("    (no plan: ").append(e.getMessage()).append(")\n");
+        }
+        return plan.toString();
+    }
+
+    private synchronized void logSlow(String fingerprint, long nanos, long rows, String plan) {
+        StringBuilder line = new StringBuilder()
+                .append(Instant.now()).append('\t')
+                .append(String.format(Locale.ROOT, "%.3fms", nanos / 1e6)).append('\t')
+                .append("rows=").append(rows).append('\t')
+                .append(Thread.currentThread().getName()).append('\t')
+                .append(fingerprint).append('\n');
+        if (plan != null) line.append(plan);
+        try {
+            Files.writeString(slowLog, line, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.finbasics.persistence;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded LRU read-through cache for single-row lookups.
+ *
+ * Entries are dropped by {@link #invalidate} once a write touching them has
+ * committed (see {@link Database#afterCommit}). A generation counter stops a
+ * load that raced with an invalidation from re-inserting the stale row.
+ * Null results are not cached.
+ */
+public class ReadCache<K, V> {
+
+    /** Loads one value on a miss. */
+    @FunctionalInterface
+    public interface Loader<K, V> {
+        V load(K key) throws SQLException;
+    }
+
+    /**
+     * Point-in-time hit/miss/eviction counters.
+     */
+    public record Stats(int size, int capacity, long hits, long misses, long evictions, long invalidations) {
+
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+
+    private final int capacity;
+    private final LinkedHashMap<K, V> entries;
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public ReadCache(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive");
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() <= ReadCache.this.capacity) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Cached value for {@code key}, loading (outside the lock) on a miss.
+     */
+    public V get(K key, Loader<K, V> loader) throws SQLException {
+        long gen;
+        synchronized (this) {
+            V v = entries.get(key);
+            if (v != null) {
+                hits++;
+                return v;
+            }
+            misses++;
+            gen = generation;
+        }
+        V loaded = loader.load(key);
+        if (loaded != null) {
+            synchronized (this) {
+                if (gen == generation) entries.put(key, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        invalidations++;
+        entries.remove(key);
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(entries.size(), capacity, hits, misses, evictions, invalidations);
+    }
+}
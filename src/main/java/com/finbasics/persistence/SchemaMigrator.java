@@ -0,0 +1,124 @@
+package com.finbasics.persistence;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies ordered migrations keyed on PRAGMA user_version.
+ *
+ * A database that is already current costs a single PRAGMA read at startup:
+ * no DDL, no seeding, no checksum queries. Pending migrations are applied one
+ * per transaction, each recording itself in schema_migrations and bumping
+ * user_version atomically with its changes.
+ */
+public class SchemaMigrator {
+
+    private final List<Migration> migrations;
+
+    public SchemaMigrator(List<Migration> migrations) {
+        for (int i = 0; i < migrations.size(); i++) {
+            if (migrations.get(i).version() != i + 1) {
+                throw new IllegalArgumentException("Migrations must be numbered 1..n without gaps");
+            }
+        }
+        this.migrations = migrations;
+    }
+
+    public int latestVersion() {
+        return migrations.size();
+    }
+
+    /**
+     * Bring the database up to date. Returns the number of migrations applied.
+     */
+    public int migrate(Connection c) throws SQLException {
+        int current = userVersion(c);
+        if (current >= latestVersion()) {
+            return 0;
+        }
+
+        ensureHistoryTable(c);
+        verifyChecksums(c, current);
+
+        int applied = 0;
+        boolean autoCommit = c.getAutoCommit();
+        c.setAutoCommit(false);
+        try {
+            for (Migration m : migrations.subList(current, migrations.size())) {
+                try {
+                    m.apply(c);
+                    record(c, m);
+                    try (Statement st = c.createStatement()) {
+                        st.execute("PRAGMA user_version = " + m.version());
+                    }
+                    c.commit();
+                    applied++;
+                } catch (SQLException | RuntimeException e) {
+                    c.rollback();
+                    throw new SQLException("Migration " + m.version() + " (" + m.description() + ") failed", e);
+                }
+            }
+        } finally {
+            c.setAutoCommit(autoCommit);
+        }
+        return applied;
+    }
+
+    /**
+     * Compare recorded checksums of applied migrations with the code.
+     * Migrations applied before history was kept have no row and are skipped.
+     */
+    public void verifyChecksums(Connection c, int upToVersion) throws SQLException {
+        Map<Integer, String> recorded = new HashMap<>();
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT version, checksum FROM schema_migrations")) {
+            while (rs.next()) {
+                recorded.put(rs.getInt(1), rs.getString(2));
+            }
+        }
+        for (Migration m : migrations.subList(0, Math.min(upToVersion, migrations.size()))) {
+            String stored = recorded.get(m.version());
+            if (stored != null && !stored.equals(m.checksum())) {
+                throw new IllegalStateException("Migration " + m.version() + " (" + m.description()
+                        + ") was changed after it was applied");
+            }
+        }
+    }
+
+    public static int userVersion(Connection c) throws SQLException {
+        try (Statement st = c.createStatement(); ResultSet rs = st.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void ensureHistoryTable(Connection c) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS schema_migrations (
+                    version INTEGER PRIMARY KEY,
+                    description TEXT NOT NULL,
+                    checksum TEXT NOT NULL,
+                    applied_at TEXT NOT NULL
+                )
+            """);
+        }
+    }
+
+    private static void record(Connection c, Migration m) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(
+                "INSERT OR REPLACE INTO schema_migrations(version, description, checksum, applied_at) VALUES(?,?,?,?)")) {
+            ps.setInt(1, m.version());
+            ps.setString(2, m.description());
+            ps.setString(3, m.checksum());
+            ps.setString(4, Instant.now().toString());
+            ps.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.finbasics.persistence;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Normalized form of a SQL statement, used to group executions of the same
+ * statement: whitespace collapsed, string and numeric literals replaced by
+ * {@code ?}, and variable-length placeholder lists such as IN (?,?,?) or
+ * multi-row VALUES (?,?),(?,?) collapsed to {@code (?+)} / {@code (?+)+} so
+ * every chunk size yields the same shape. Quoted identifiers ("col 1",
+ * `col 1`, [col 1]) are names, not literals, and are kept verbatim.
+ */
+final class SqlShape {
+
+    private static final int CACHE_LIMIT = 2048;
+    private static final Map<String, String> CACHE = new ConcurrentHashMap<>();
+
+    private SqlShape() {}
+
+    static String of(String sql) {
+        if (sql == null) return "";
+        String shape = CACHE.get(sql);
+        if (shape == null) {
+            shape = normalize(sql);
+            // Statement text is almost always a constant; the cap only guards against literal-built SQL.
+            if (CACHE.size() < CACHE_LIMIT) CACHE.put(sql, shape);
+        }
+        return shape;
+    }
+
+    static String normalize(String sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        int n = sql.length();
+        for (int i = 0; i < n; i++) {
+            char ch = sql.charAt(i);
+            if (Character.isWhitespace(ch)) {
+                while (i + 1 < n && Character.isWhitespace(sql.charAt(i + 1))) i++;
+                if (out.length() > 0) out.append(' ');
+            } else if (ch == '\'') {
+                // String literal, '' is an escaped quote.
+                i++;
+                while (i < n) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < n && sql.charAt(i + 1) == '\'') i++;
+                        else break;
+                    }
+                    i++;
+                }
+                out.append('?');
+            } else if (ch == '"' || ch == '`' || ch == '[') {
+                // Quoted identifier; a doubled quote is an escaped one ([...] has no escape).
+                char close = ch == '[' ? ']' : ch;
+                int start = i++;
+                while (i < n) {
+                    if (sql.charAt(i) == close) {
+                        if (close != ']' && i + 1 < n && sql.charAt(i + 1) == close) i++;
+                        else break;
+                    }
+                    i++;
+                }
+                out.append(sql, start, Math.min(i + 1, n));
+            } else if (Character.isDigit(ch) && !partOfIdentifier(out)) {
+                while (i + 1 < n && (Character.isLetterOrDigit(sql.charAt(i + 1)) || sql.charAt(i + 1) == '.')) i++;
+                out.append('?');
+            } else {
+                out.append(ch);
+            }
+        }
+        int end = out.length();
+        while (end > 0 && (out.charAt(end - 1) == ' ' || out.charAt(end - 1) == ';')) end--;
+        out.setLength(end);
+        return collapseLists(out.toString());
+    }
+
+    private static boolean partOfIdentifier(StringBuilder out) {
+        if (out.length() == 0) return false;
+        char prev = out.charAt(out.length() - 1);
+        return Character.isLetterOrDigit(prev) || prev == '_';
+    }
+
+    private static String collapseLists(String s) {
+        if (s.indexOf('?') < 0) return s;
+        String lists = s.replaceAll("\\( ?\\?(?: ?, ?\\?)* ?\\)", "(?+)");
+        return lists.replaceAll("\\(\\?\\+\\)(?: ?, ?\\(\\?\\+\\))+", "(?+)+");
+    }
+}
@@ -0,0 +1,13 @@
+package com.finbasics.persistence;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A unit of JDBC work executed against a connection supplied by the caller.
+ */
+@FunctionalInterface
+public interface SqlWork<T> {
+
+    T run(Connection c) throws SQLException;
+}
@@ -1,15 +1,66 @@
 package com.finbasics.persistence;
 
+import com.finbasics.metrics.LatencyHistogram;
+import com.finbasics.metrics.Metrics;
+import com.finbasics.model.AnalysisColumns;
 import com.finbasics.model.StatementAnalysis;
 
 import java.sql.*;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Access to the statement_analysis table.
  */
 public class StatementAnalysisRepository {
 
+    private static final LatencyHistogram INSERT_LATENCY = Metrics.histogram("repo.analysis.insert");
+    private static final LatencyHistogram FIND_LATENCY = Metrics.histogram("repo.analysis.find.load");
+    private static final LatencyHistogram BATCH_LATENCY = Metrics.histogram("repo.analysis.findByApplicationIds");
+
+    /** Column order expected by {@link #map(ResultSet, int)}. */
+    static final String ANALYSIS_COLUMNS = """
+            application_id, borrower_type, period_start, period_end, revenue, ebitda, net_income, \
+            total_assets, total_liabilities, current_assets, current_liabilities, cash, interest_expense, \
+            debt_service, ebitda_margin, net_margin, current_ratio, quick_ratio, debt_to_equity, dscr, roa, roe, \
+            dso, inventory_turnover, asset_turnover, monthly_income, monthly_debt_payments, dti, ltv, \
+            credit_score, created_at""";
+
+    static final String FIND_BY_APPLICATION_SQL =
+            "SELECT " + ANALYSIS_COLUMNS + " FROM statement_analysis WHERE application_id = ?";
+
+    static final String SCORING_COLUMNS_SQL = """
+            SELECT application_id, borrower_type, dscr, current_ratio, debt_to_equity, dti, ltv, credit_score
+            FROM statement_analysis
+            """;
+
+    static String findByApplicationIdsSql(int idCount) {
+        return "SELECT " + ANALYSIS_COLUMNS + " FROM statement_analysis WHERE application_id IN ("
+                + InClause.placeholders(idCount) + ")";
+    }
+
     public void insert(StatementAnalysis s) throws SQLException {
+        Database.await(insertAsync(s));
+    }
+
+    /**
+     * Queue the insert on the writer thread; completes after commit.
+     */
+    public CompletableFuture<Void> insertAsync(StatementAnalysis s) {
+        return Database.writeAsync(c -> {
+            insert(c, s);
+            return null;
+        });
+    }
+
+    /**
+     * Insert on a connection whose transaction is owned by the caller.
+     */
+    public void insert(Connection c, StatementAnalysis s) throws SQLException {
+        long t = Metrics.start();
         String sql = """
             INSERT INTO statement_analysis(
                 application_id,
@@ -46,8 +97,7 @@ public class StatementAnalysisRepository {
             ) VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)
             """;
 
-        try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
 
             ps.setInt(1, s.getApplicationId());
             ps.setString(2, s.getBorrowerType());
@@ -83,52 +133,114 @@ public class StatementAnalysisRepository {
 
             ps.executeUpdate();
         }
+        int appId = s.getApplicationId();
+        Database.afterCommit(() -> Database.analysisCache().invalidate(appId));
+        Database.publishAfterCommit(ChangeBus.Kind.ANALYSIS_INSERTED, appId);
+        INSERT_LATENCY.recordSince(t);
     }
 
+    /**
+     * Analysis for one application, served from {@link Database#analysisCache()}
+     * when it has been read before.
+     */
     public StatementAnalysis findByApplicationId(int appId) throws SQLException {
-        String sql = "SELECT * FROM statement_analysis WHERE application_id = ?";
+        return Database.analysisCache().get(appId, StatementAnalysisRepository::load);
+    }
 
+    private static StatementAnalysis load(int appId) throws SQLException {
+        long t = Metrics.start();
         try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+             PreparedStatement ps = c.prepareStatement(FIND_BY_APPLICATION_SQL)) {
             ps.setInt(1, appId);
             try (ResultSet rs = ps.executeQuery()) {
-                if (!rs.next()) return null;
-
-                StatementAnalysis s = new StatementAnalysis();
-                s.setApplicationId(rs.getInt("application_id"));
-                s.setBorrowerType(rs.getString("borrower_type"));
-                s.setPeriodStart(rs.getString("period_start"));
-                s.setPeriodEnd(rs.getString("period_end"));
-                s.setRevenue(rs.getDouble("revenue"));
-                s.setEbitda(rs.getDouble("ebitda"));
-                s.setNetIncome(rs.getDouble("net_income"));
-                s.setTotalAssets(rs.getDouble("total_assets"));
-                s.setTotalLiabilities(rs.getDouble("total_liabilities"));
-                s.setCurrentAssets(rs.getDouble("current_assets"));
-                s.setCurrentLiabilities(rs.getDouble("current_liabilities"));
-                s.setCash(rs.getDouble("cash"));
-                s.setInterestExpense(rs.getDouble("interest_expense"));
-                s.setDebtService(rs.getDouble("debt_service"));
-                s.setEbitdaMargin(rs.getDouble("ebitda_margin"));
-                s.setNetMargin(rs.getDouble("net_margin"));
-                s.setCurrentRatio(rs.getDouble("current_ratio"));
-                s.setQuickRatio(rs.getDouble("quick_ratio"));
-                s.setDebtToEquity(rs.getDouble("debt_to_equity"));
-                s.setDscr(rs.getDouble("dscr"));
-                s.setRoa(rs.getDouble("roa"));
-                s.setRoe(rs.getDouble("roe"));
-                s.setDso(rs.getDouble("dso"));
-                s.setInventoryTurnover(rs.getDouble("inventory_turnover"));
-                s.setAssetTurnover(rs.getDouble("asset_turnover"));
-                s.setMonthlyIncome(rs.getDouble("monthly_income"));
-                s.setMonthlyDebtPayments(rs.getDouble("monthly_debt_payments"));
-                s.setDti(rs.getDouble("dti"));
-                s.setLtv(rs.getDouble("ltv"));
-                s.setCreditScore(rs.getInt("credit_score"));
-                s.setCreatedAt(rs.getString("created_at"));
-
-                return s;
+                return rs.next() ? map(rs, 1) : null;
             }
+        } finally {
+            FIND_LATENCY.recordSince(t);
         }
     }
+
+    /**
+     * Analyses for many applications at once, keyed by application id.
+     * Applications without an analysis are simply absent from the map.
+     */
+    public Map<Integer, StatementAnalysis> findByApplicationIds(Collection<Integer> appIds) throws SQLException {
+        Map<Integer, StatementAnalysis> result = new HashMap<>(Math.max(16, appIds.size() * 4 / 3 + 1));
+        if (appIds.isEmpty()) return result;
+
+        long t = Metrics.start();
+        try (Connection c = Database.getConnection()) {
+            for (List<Integer> chunk : InClause.chunks(appIds)) {
+                try (PreparedStatement ps = c.prepareStatement(findByApplicationIdsSql(chunk.size()))) {
+                    InClause.bind(ps, chunk);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            StatementAnalysis s = map(rs, 1);
+                            result.put(s.getApplicationId(), s);
+                        }
+                    }
+                }
+            }
+        } finally {
+            BATCH_LATENCY.recordSince(t);
+        }
+        return result;
+    }
+
+    /**
+     * Every analysis's grading inputs as primitive columns, for batch
+     * re-grading. Streams the table once without building row objects.
+     */
+    public AnalysisColumns loadScoringColumns() throws SQLException {
+        try (Connection c = Database.getConnection();
+             Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery(SCORING_COLUMNS_SQL)) {
+            AnalysisColumns cols = new AnalysisColumns(1024);
+            while (rs.next()) {
+                cols.add(rs.getInt(1), "SME".equalsIgnoreCase(rs.getString(2)), rs.getDouble(3), rs.getDouble(4),
+                        rs.getDouble(5), rs.getDouble(6), rs.getDouble(7), rs.getInt(8));
+            }
+            return cols;
+        }
+    }
+
+    /**
+     * Map the {@link #ANALYSIS_COLUMNS} block starting at column {@code col}.
+     * Index-based so joined queries can place the block anywhere in the row.
+     */
+    static StatementAnalysis map(ResultSet rs, int col) throws SQLException {
+        StatementAnalysis s = new StatementAnalysis();
+        s.setApplicationId(rs.getInt(col));
+        s.setBorrowerType(rs.getString(col + 1));
+        s.setPeriodStart(rs.getString(col + 2));
+        s.setPeriodEnd(rs.getString(col + 3));
+        s.setRevenue(rs.getDouble(col + 4));
+        s.setEbitda(rs.getDouble(col + 5));
+        s.setNetIncome(rs.getDouble(col + 6));
+        s.setTotalAssets(rs.getDouble(col + 7));
+        s.setTotalLiabilities(rs.getDouble(col + 8));
+        s.setCurrentAssets(rs.getDouble(col + 9));
+        s.setCurrentLiabilities(rs.getDouble(col + 10));
+        s.setCash(rs.getDouble(col + 11));
+        s.setInterestExpense(rs.getDouble(col + 12));
+        s.setDebtService(rs.getDouble(col + 13));
+        s.setEbitdaMargin(rs.getDouble(col + 14));
+        s.setNetMargin(rs.getDouble(col + 15));
+        s.setCurrentRatio(rs.getDouble(col + 16));
+        s.setQuickRatio(rs.getDouble(col + 17));
+        s.setDebtToEquity(rs.getDouble(col + 18));
+        s.setDscr(rs.getDouble(col + 19));
+        s.setRoa(rs.getDouble(col + 20));
+        s.setRoe(rs.getDouble(col + 21));
+        s.setDso(rs.getDouble(col + 22));
+        s.setInventoryTurnover(rs.getDouble(col + 23));
+        s.setAssetTurnover(rs.getDouble(col + 24));
+        s.setMonthlyIncome(rs.getDouble(col + 25));
+        s.setMonthlyDebtPayments(rs.getDouble(col + 26));
+        s.setDti(rs.getDouble(col + 27));
+        s.setLtv(rs.getDouble(col + 28));
+        s.setCreditScore(rs.getInt(col + 29));
+        s.setCreatedAt(rs.getString(col + 30));
+        return s;
+    }
 }
@@ -0,0 +1,214 @@
+package com.finbasics.persistence;
+
+import com.finbasics.metrics.FlightEvents;
+import jdk.jfr.EventType;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Statement wrapper that times every execution and row fetch, feeding a
+ * {@link FlightEvents.JdbcStatement} and, when enabled, {@link QueryStats}.
+ * The pool only wraps statements while one of the two is on, so otherwise
+ * there is no proxy at all.
+ *
+ * A query's execution spans executeQuery through the last row read (next()
+ * returning false) or close of the result set, whichever comes first, since
+ * SQLite does most of its work while stepping rows.
+ */
+final class TracingStatement {
+
+    private static final EventType TYPE = EventType.getEventType(FlightEvents.JdbcStatement.class);
+
+    private TracingStatement() {}
+
+    /** Whether statements need wrapping for a pool with these stats (may be null). */
+    static boolean enabled(QueryStats stats) {
+        return stats != null || TYPE.isEnabled();
+    }
+
+    /**
+     * Wrap a statement returned by {@code createStatement} or
+     * {@code prepareStatement}; {@code sql} is null for plain statements.
+     * {@code prepareNanos} is charged to the first execution.
+     */
+    static Statement wrap(Statement target, String sql, long prepareNanos, QueryStats stats) {
+        Class<?> type = target instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return (Statement) Proxy.newProxyInstance(
+                Statement.class.getClassLoader(),
+                new Class<?>[]{type},
+                new StatementHandler(target, sql, prepareNanos, stats));
+    }
+
+    /** One execution in flight. */
+    private static final class Execution {
+        final FlightEvents.JdbcStatement event = new FlightEvents.JdbcStatement();
+        final Statement statement;
+        final String sql;
+        final String operation;
+        final long prepareNanos;
+        final QueryStats stats;
+        long executeNanos;
+        long fetchNanos;
+        long rows;
+        boolean done;
+
+        Execution(Statement statement, String sql, String operation, long prepareNanos, QueryStats stats) {
+            this.statement = statement;
+            this.sql = sql;
+            this.operation = operation;
+            this.prepareNanos = prepareNanos;
+            this.stats = stats;
+        }
+
+        void finish() {
+            if (done) return;
+            done = true;
+            event.end();
+            if (event.shouldCommit()) {
+                event.sql = SqlShape.of(sql);
+                event.operation = operation;
+                event.rows = rows;
+                event.commit();
+            }
+            if (stats != null) {
+                try {
+                    stats.record(sql, prepareNanos, executeNanos, fetchNanos, rows, statement.getConnection());
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private final QueryStats stats;
+        private long prepareNanos;
+
+        StatementHandler(Statement target, String preparedSql, long prepareNanos, QueryStats stats) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+            this.prepareNanos = prepareNanos;
+            this.stats = stats;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                switch (name) {
+                    case "equals" -> { return proxy == args[0]; }
+                    case "hashCode" -> { return System.identityHashCode(proxy); }
+                    case "unwrap" -> {
+                        if (((Class<?>) args[0]).isInstance(target)) return target;
+                    }
+                    default -> { }
+                }
+                return call(target, method, args);
+            }
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+            Execution ex = new Execution(target, sql, name, prepareNanos, stats);
+            prepareNanos = 0;
+            ex.event.begin();
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = call(target, method, args);
+            } catch (Throwable t) {
+                ex.executeNanos = System.nanoTime() - start;
+                ex.rows = -1;
+                ex.finish();
+                throw t;
+            }
+            ex.executeNanos = System.nanoTime() - start;
+            switch (name) {
+                case "executeQuery" -> {
+                    // Finished when the rows have been read.
+                    return wrapResultSet((ResultSet) result, ex);
+                }
+                case "executeUpdate" -> ex.rows = (Integer) result;
+                case "executeLargeUpdate" -> ex.rows = (Long) result;
+                case "executeBatch" -> ex.rows = sum((int[]) result);
+                case "executeLargeBatch" -> ex.rows = sum((long[]) result);
+                default -> ex.rows = Boolean.TRUE.equals(result) ? -1 : target.getUpdateCount();
+            }
+            ex.finish();
+            return result;
+        }
+    }
+
+    private static ResultSet wrapResultSet(ResultSet rs, Execution ex) {
+        return (ResultSet) Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                new ResultSetHandler(rs, ex));
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final Execution ex;
+
+        ResultSetHandler(ResultSet target, Execution ex) {
+            this.target = target;
+            this.ex = ex;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next" -> {
+                    long start = System.nanoTime();
+                    boolean more;
+                    try {
+                        more = (Boolean) call(target, method, args);
+                    } finally {
+                        ex.fetchNanos += System.nanoTime() - start;
+                    }
+                    if (more) ex.rows++;
+                    else ex.finish();
+                    return more;
+                }
+                case "close" -> {
+                    ex.finish();
+                    return call(target, method, args);
+                }
+                case "equals" -> { return proxy == args[0]; }
+                case "hashCode" -> { return System.identityHashCode(proxy); }
+                case "unwrap" -> {
+                    if (((Class<?>) args[0]).isInstance(target)) return target;
+                }
+                default -> { }
+            }
+            return call(target, method, args);
+        }
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static long sum(int[] counts) {
+        long total = 0;
+        for (int c : counts) if (c > 0) total += c;
+        return total;
+    }
+
+    private static long sum(long[] counts) {
+        long total = 0;
+        for (long c : counts) if (c > 0) total += c;
+        return total;
+    }
+}
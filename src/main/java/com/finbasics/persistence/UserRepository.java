@@ -1,5 +1,7 @@
 package com.finbasics.persistence;
 
+import com.finbasics.metrics.LatencyHistogram;
+import com.finbasics.metrics.Metrics;
 import com.finbasics.model.User;
 import java.sql.*;
 import java.time.Instant;
@@ -10,6 +12,11 @@ import java.time.Instant;
  */
 public class UserRepository {
 
+    private static final LatencyHistogram FIND_LATENCY = Metrics.histogram("repo.user.findByUsername");
+
+    // SQL query selecting the fields we need from `users` table
+    static final String FIND_BY_USERNAME_SQL = "SELECT id, username, password_hash, created_at FROM users WHERE username = ?";
+
     /**
      * Find a user by their username.
      *
@@ -18,12 +25,10 @@ public class UserRepository {
      * @throws SQLException when a database error occurs
      */
     public User findByUsername(String username) throws SQLException { // propagate SQLExceptions to caller/service
-        // SQL query selecting the fields we need from `users` table
-        String sql = "SELECT id, username, password_hash, created_at FROM users WHERE username = ?";
-
+        long t = Metrics.start();
         // try-with-resources ensures Connection and PreparedStatement are closed automatically
         try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+             PreparedStatement ps = c.prepareStatement(FIND_BY_USERNAME_SQL)) {
 
             // Bind the username parameter into the SQL (prevents SQL injection)
             ps.setString(1, username);
@@ -45,6 +50,8 @@ public class UserRepository {
                 // u.setCreatedAt(rs.getString("created_at"));
                 return u;
             }
+        } finally {
+            FIND_LATENCY.recordSince(t);
         }
     }
 
@@ -60,21 +67,23 @@ public class UserRepository {
         // Keep SQL simple: let DB fill created_at via DEFAULT CURRENT_TIMESTAMP
         String sql = "INSERT INTO users(username, password_hash) VALUES(?, ?)";
 
-        try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        // Writes are serialized through the database writer thread
+        return Database.write(c -> {
+            try (PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
-            // Bind parameters in order matching the SQL
-            ps.setString(1, username);
-            ps.setString(2, passwordHash);
+                // Bind parameters in order matching the SQL
+                ps.setString(1, username);
+                ps.setString(2, passwordHash);
 
-            // Execute insert
-            ps.executeUpdate();
+                // Execute insert
+                ps.executeUpdate();
 
-            // Retrieve auto-generated key (id)
-            try (ResultSet keys = ps.getGeneratedKeys()) {
-                return keys.next() ? keys.getInt(1) : 0;
+                // Retrieve auto-generated key (id)
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    return keys.next() ? keys.getInt(1) : 0;
+                }
             }
-        }
+        });
     }
 
 }
@@ -1,5 +1,8 @@
 package com.finbasics.security;
 
+import com.finbasics.metrics.FlightEvents;
+import com.finbasics.metrics.LatencyHistogram;
+import com.finbasics.metrics.Metrics;
 import org.mindrot.jbcrypt.BCrypt;
 
 /**
@@ -14,6 +17,9 @@ public class PasswordHasher {
     // Work factor (cost). 10 is a reasonable default for desktop.
     private static final int WORK_FACTOR = 10;
 
+    private static final LatencyHistogram HASH_LATENCY = Metrics.histogram("security.bcrypt.hash");
+    private static final LatencyHistogram VERIFY_LATENCY = Metrics.histogram("security.bcrypt.verify");
+
     /**
      * Hash a plain-text password using BCrypt.
      *
@@ -24,7 +30,13 @@ public class PasswordHasher {
         if (plainPassword == null) {
             throw new IllegalArgumentException("Password cannot be null");
         }
-        return BCrypt.hashpw(plainPassword, BCrypt.gensalt(WORK_FACTOR));
+        FlightEvents.Bcrypt event = new FlightEvents.Bcrypt();
+        event.begin();
+        long t = Metrics.start();
+        String hash = BCrypt.hashpw(plainPassword, BCrypt.gensalt(WORK_FACTOR));
+        HASH_LATENCY.recordSince(t);
+        commit(event, "hash", WORK_FACTOR);
+        return hash;
     }
 
     /**
@@ -38,7 +50,33 @@ public class PasswordHasher {
         if (plainPassword == null || hash == null) {
             return false;
         }
-        return BCrypt.checkpw(plainPassword, hash);
+        FlightEvents.Bcrypt event = new FlightEvents.Bcrypt();
+        event.begin();
+        long t = Metrics.start();
+        boolean ok = BCrypt.checkpw(plainPassword, hash);
+        VERIFY_LATENCY.recordSince(t);
+        commit(event, "verify", costOf(hash));
+        return ok;
+    }
+
+    private static void commit(FlightEvents.Bcrypt event, String operation, int workFactor) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.workFactor = workFactor;
+            event.commit();
+        }
+    }
+
+    // Cost from a "$2a$10$..." hash; 0 if it does not look like one.
+    private static int costOf(String hash) {
+        int start = hash.indexOf('$', 1) + 1;
+        if (start <= 0 || start + 2 > hash.length()) return 0;
+        try {
+            return Integer.parseInt(hash, start, start + 2, 10);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
     }
 
     /**
@@ -1,18 +1,19 @@
 package com.finbasics.service;
 
 /**
- * Small static holder for the "currently opened" application
- * when navigating from Dashboard -> Applicant Detail.
+ * The "currently opened" application when navigating from
+ * Dashboard -> Applicant Detail. Stored on the desktop {@link Session}, so
+ * logging out forgets it.
  */
 public class ApplicationContext {
 
-    private static Integer currentApplicationId;
-
     public static Integer getCurrentApplicationId() {
-        return currentApplicationId;
+        UserSession s = Session.current();
+        return s == null ? null : s.currentApplicationId();
     }
 
     public static void setCurrentApplicationId(Integer id) {
-        currentApplicationId = id;
+        UserSession s = Session.current();
+        if (s != null) s.setCurrentApplicationId(id);
     }
 }
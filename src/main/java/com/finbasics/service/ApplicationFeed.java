@@ -0,0 +1,189 @@
+package com.finbasics.service;
+
+import com.finbasics.model.ApplicationRow;
+import com.finbasics.persistence.ApplicationQuery;
+import com.finbasics.persistence.ApplicationRepository;
+import com.finbasics.persistence.ApplicationRepository.ChangeMark;
+import com.finbasics.persistence.ApplicationRepository.Delta;
+import com.finbasics.persistence.ChangeBus;
+import com.finbasics.persistence.Database;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Keeps a loaded list of applications current without reloading it.
+ *
+ * Changes committed by this process arrive on {@link Database#changes()};
+ * the affected rows are re-read on a virtual thread and handed to the sink.
+ * Changes made elsewhere (another analyst's app on the same database file)
+ * are picked up by polling {@link ApplicationRepository#findChangedSince}
+ * every finbasics.dashboard.pollSeconds (default 10), and once immediately
+ * on {@link #start()} to catch up on anything missed while stopped. A row may
+ * be delivered more than once; {@link #merge} treats repeats as no-ops.
+ */
+public final class ApplicationFeed {
+
+    private static final int POLL_BATCH = 500;
+
+    private static final ScheduledExecutorService POLLER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "finbasics-feed-poll");
+        t.setDaemon(true);
+        return t;
+    });
+    private static final Executor FETCHER =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("feed-fetch-", 0).factory());
+
+    private final ApplicationRepository repo;
+    private final Duration pollInterval;
+    private final Executor deliver;
+    private final Consumer<List<ApplicationRow>> sink;
+
+    private final Set<Integer> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean fetchScheduled = new AtomicBoolean();
+    private volatile ChangeMark mark;
+    private volatile boolean running;
+    private ChangeBus.Subscription subscription;
+    private ScheduledFuture<?> poll;
+
+    /**
+     * @param deliver runs deliveries, e.g. {@code Platform::runLater}
+     * @param sink    receives changed rows, on {@code deliver}, while started
+     */
+    public ApplicationFeed(ApplicationRepository repo, Duration pollInterval,
+                           Executor deliver, Consumer<List<ApplicationRow>> sink) {
+        this.repo = repo;
+        this.pollInterval = pollInterval;
+        this.deliver = deliver;
+        this.sink = sink;
+    }
+
+    public static Duration pollIntervalFromSystemProperties() {
+        return Duration.ofSeconds(Math.max(1, Long.getLong("finbasics.dashboard.pollSeconds", 10)));
+    }
+
+    /**
+     * Remember the current change position. Call (off the FX thread) just
+     * before loading the rows this feed will keep current; polling resumes
+     * from here and does nothing until it has been called.
+     */
+    public void markNow() throws SQLException {
+        mark = repo.latestChange();
+    }
+
+    public void start() {
+        if (running) return;
+        running = true;
+        subscription = Database.changes().subscribe(this::onChange);
+        poll = POLLER.scheduleWithFixedDelay(this::pollChanges, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (!running) return;
+        running = false;
+        subscription.close();
+        poll.cancel(false);
+        pending.clear();
+    }
+
+    private void onChange(ChangeBus.Change change) {
+        // Lists show no analysis figures, so only row-level changes matter.
+        if (change.kind() == ChangeBus.Kind.ANALYSIS_INSERTED) return;
+        pending.add(change.applicationId());
+        if (fetchScheduled.compareAndSet(false, true)) {
+            FETCHER.execute(this::fetchPending);
+        }
+    }
+
+    private void fetchPending() {
+        // Cleared first: ids added from here on either get drained below or schedule another fetch.
+        fetchScheduled.set(false);
+        List<ApplicationRow> rows = new ArrayList<>();
+        for (Iterator<Integer> it = pending.iterator(); it.hasNext(); ) {
+            int id = it.next();
+            it.remove();
+            try {
+                ApplicationRow row = repo.findHeader(id);
+                if (row != null) rows.add(row);
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+        publish(rows);
+    }
+
+    private void pollChanges() {
+        try {
+            // Nothing to resume from until markNow() has run.
+            if (mark == null) return;
+            Delta delta;
+            do {
+                delta = repo.findChangedSince(mark, POLL_BATCH);
+                mark = delta.next();
+                publish(delta.rows());
+            } while (running && delta.rows().size() == POLL_BATCH);
+        } catch (SQLException | RuntimeException e) {
+            // Keep the schedule alive; the next poll resumes from the same mark.
+            e.printStackTrace();
+        }
+    }
+
+    private void publish(List<ApplicationRow> rows) {
+        if (rows.isEmpty() || !running) return;
+        deliver.execute(() -> {
+            if (running) sink.accept(rows);
+        });
+    }
+
+    /**
+     * Apply changed rows to a window holding the first rows of {@code query}.
+     * A row already in the window is replaced, moved if its position changed,
+     * or dropped if it no longer matches the filters; a new matching row is
+     * inserted where it sorts, unless it falls past the end of a window that
+     * still has rows to page in, where the next page will bring it.
+     *
+     * @param complete true when the window already holds every matching row
+     */
+    public static void merge(List<ApplicationRow> window, List<ApplicationRow> changed,
+                             ApplicationQuery query, boolean complete) {
+        Comparator<ApplicationRow> order = query.comparator();
+        for (ApplicationRow row : changed) {
+            int at = indexOf(window, row.id());
+            boolean matches = query.matches(row);
+            if (at >= 0) {
+                if (matches && order.compare(window.get(at), row) == 0) {
+                    if (!window.get(at).equals(row)) window.set(at, row);
+                    continue;
+                }
+                window.remove(at);
+            }
+            if (!matches) continue;
+            int found = Collections.binarySearch(window, row, order);
+            int insertAt = found >= 0 ? found : -found - 1;
+            if (insertAt < window.size() || complete) {
+                window.add(insertAt, row);
+            }
+        }
+    }
+
+    private static int indexOf(List<ApplicationRow> window, int id) {
+        for (int i = 0; i < window.size(); i++) {
+            if (window.get(i).id() == id) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,48 @@
+package com.finbasics.service;
+
+import com.finbasics.model.ApplicationRow;
+import com.finbasics.persistence.ApplicationQuery;
+import com.finbasics.persistence.ApplicationRepository;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Forward-only cursor over one {@link ApplicationQuery}. Each call to
+ * {@link #nextPage()} seeks past the last row already handed out, so the
+ * cost of a page does not grow with how far the user has scrolled.
+ */
+public class ApplicationPager {
+
+    private final ApplicationRepository repo;
+    private final int pageSize;
+    private final ApplicationQuery query;
+
+    private ApplicationRepository.Cursor cursor;
+    private boolean exhausted;
+
+    public ApplicationPager(ApplicationRepository repo, int pageSize, ApplicationQuery query) {
+        this.repo = repo;
+        this.pageSize = pageSize;
+        this.query = query;
+    }
+
+    public ApplicationQuery query() {
+        return query;
+    }
+
+    /**
+     * Fetch the next page, or an empty list once everything has been read.
+     */
+    public synchronized List<ApplicationRow> nextPage() throws SQLException {
+        if (exhausted) return List.of();
+        ApplicationRepository.Page page = repo.findPage(query, cursor, pageSize);
+        cursor = page.next();
+        exhausted = !page.hasMore();
+        return page.rows();
+    }
+
+    public synchronized boolean hasMore() {
+        return !exhausted;
+    }
+}
@@ -1,64 +1,181 @@
 package com.finbasics.service;
 
-import com.finbasics.model.ApplicationSummary;
+import com.finbasics.metrics.Counter;
+import com.finbasics.metrics.FlightEvents;
+import com.finbasics.metrics.LatencyHistogram;
+import com.finbasics.metrics.Metrics;
+import com.finbasics.model.ApplicationRow;
 import com.finbasics.model.NewApplication;
 import com.finbasics.model.StatementAnalysis;
+import com.finbasics.model.User;
+import com.finbasics.persistence.ApplicationQuery;
 import com.finbasics.persistence.ApplicationRepository;
 import com.finbasics.persistence.AuditRepository;
 import com.finbasics.persistence.Database;
 import com.finbasics.persistence.StatementAnalysisRepository;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.time.Instant;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Orchestrates submission -> storage -> automatic analysis.
  */
 public class ApplicationService {
 
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    /** Timed steps of {@link #submitNewApplication}. */
+    public enum SubmitStage {
+        ALLOCATE_NUMBER, INSERT_APPLICATION, BUILD_ANALYSIS, INSERT_ANALYSIS, UPDATE_STATUS, AUDIT,
+        /** Queueing + all in-transaction work + commit, seen from the caller. */
+        TRANSACTION,
+        TOTAL
+    }
+
+    /**
+     * Receives per-stage timings. In-transaction stages are reported from the
+     * database writer thread, so implementations must be thread-safe.
+     */
+    @FunctionalInterface
+    public interface StageListener {
+        void stageCompleted(SubmitStage stage, long nanos);
+    }
+
+    private static final StageListener NO_STAGE_LISTENER = (stage, nanos) -> {};
+
+    // submit.<stage> histograms, indexed by SubmitStage ordinal.
+    private static final LatencyHistogram[] STAGE_LATENCY = new LatencyHistogram[SubmitStage.values().length];
+    static {
+        for (SubmitStage s : SubmitStage.values()) {
+            STAGE_LATENCY[s.ordinal()] = Metrics.histogram("submit." + s.name().toLowerCase());
+        }
+    }
+    private static final Counter SUBMITTED = Metrics.counter("submit.ok");
+    private static final Counter SUBMIT_FAILED = Metrics.counter("submit.failed");
+
     private final ApplicationRepository appRepo = new ApplicationRepository();
     private final StatementAnalysisService analysisService = new StatementAnalysisService();
     private final StatementAnalysisRepository saRepo = new StatementAnalysisRepository();
     private final AuditRepository audit = new AuditRepository();
+    private volatile StageListener stageListener = NO_STAGE_LISTENER;
+
+    /**
+     * Install a listener for submit stage timings (load testing); null
+     * removes it. The submit.* metrics are recorded either way.
+     */
+    public void setStageListener(StageListener listener) {
+        this.stageListener = listener != null ? listener : NO_STAGE_LISTENER;
+    }
 
+    /**
+     * Submit as the desktop {@link Session} user.
+     */
     public int submitNewApplication(NewApplication newApp) throws ApplicationException {
-        var user = Session.getCurrentUser();
-        if (user == null) {
+        return submitNewApplication(Session.current(), newApp);
+    }
+
+    /**
+     * Submit on behalf of {@code session}'s user. Safe to call concurrently
+     * with different sessions.
+     */
+    public int submitNewApplication(UserSession session, NewApplication newApp) throws ApplicationException {
+        if (session == null) {
             throw new ApplicationException("No logged-in user.");
         }
+        User user = session.user();
 
+        StageListener stages = stageListener;
+        FlightEvents.Submit event = new FlightEvents.Submit();
+        event.begin();
+        long start = System.nanoTime();
+        String appNumber = null;
+        int id = 0;
         try {
-            int appId = appRepo.createApplication(newApp, user.getId());
-
-            StatementAnalysis sa = analysisService.buildAutoAnalysis(newApp, appId);
-            saRepo.insert(sa);
-
-            try (Connection c = Database.getConnection();
-                 PreparedStatement ps = c.prepareStatement(
-                         "UPDATE applications SET status = ?, updated_at = ? WHERE id = ?")) {
-                ps.setString(1, "ANALYZED");
-                ps.setString(2, Instant.now().toString());
-                ps.setInt(3, appId);
-                ps.executeUpdate();
-            }
+            appNumber = appRepo.nextApplicationNumber();
+            long txStart = System.nanoTime();
+            completed(stages, SubmitStage.ALLOCATE_NUMBER, txStart - start);
+
+            // One connection, one commit: an application never exists without its analysis.
+            String number = appNumber;
+            id = Database.inTransaction(c -> {
+                long t0 = System.nanoTime();
+                int appId = appRepo.createApplication(c, newApp, user.getId(), number);
+                long t1 = System.nanoTime();
+                completed(stages, SubmitStage.INSERT_APPLICATION, t1 - t0);
+
+                StatementAnalysis sa = analysisService.buildAutoAnalysis(newApp, appId);
+                long t2 = System.nanoTime();
+                completed(stages, SubmitStage.BUILD_ANALYSIS, t2 - t1);
+
+                saRepo.insert(c, sa);
+                long t3 = System.nanoTime();
+                completed(stages, SubmitStage.INSERT_ANALYSIS, t3 - t2);
 
-            audit.log(user.getId(), "APP_SUBMIT", "application_id=" + appId);
-            audit.log(user.getId(), "APP_ANALYSIS_AUTO", "application_id=" + appId);
+                appRepo.updateStatus(c, appId, "ANALYZED");
+                long t4 = System.nanoTime();
+                completed(stages, SubmitStage.UPDATE_STATUS, t4 - t3);
 
-            return appId;
+                audit.log(c, user.getId(), "APP_SUBMIT", "application_id=" + appId);
+                audit.log(c, user.getId(), "APP_ANALYSIS_AUTO", "application_id=" + appId);
+                completed(stages, SubmitStage.AUDIT, System.nanoTime() - t4);
+                return appId;
+            });
+            long end = System.nanoTime();
+            completed(stages, SubmitStage.TRANSACTION, end - txStart);
+            completed(stages, SubmitStage.TOTAL, end - start);
+            SUBMITTED.increment();
+            return id;
         } catch (SQLException e) {
+            SUBMIT_FAILED.increment();
             throw new ApplicationException("Failed to submit application", e);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.applicationId = id;
+                event.applicationNumber = appNumber;
+                event.borrowerType = newApp.getBorrowerType();
+                event.productType = newApp.getProductType();
+                event.requestedAmount = newApp.getRequestedAmount();
+                event.succeeded = id != 0;
+                event.commit();
+            }
         }
     }
 
-    public ObservableList<ApplicationSummary> loadApplicationSummaries() throws SQLException {
-        List<ApplicationSummary> list = appRepo.findAllSummaries();
+    private static void completed(StageListener listener, SubmitStage stage, long nanos) {
+        STAGE_LATENCY[stage.ordinal()].record(nanos);
+        listener.stageCompleted(stage, nanos);
+    }
+
+    public ObservableList<ApplicationRow> loadApplicationSummaries() throws SQLException {
+        List<ApplicationRow> list = appRepo.findAllSummaries();
         return FXCollections.observableArrayList(list);
     }
+
+    /**
+     * A feed that keeps rows loaded from {@link #pager} current, delivering
+     * changed rows to {@code sink} on the FX thread.
+     */
+    public ApplicationFeed feed(Consumer<List<ApplicationRow>> sink) {
+        return new ApplicationFeed(appRepo, ApplicationFeed.pollIntervalFromSystemProperties(), Platform::runLater, sink);
+    }
+
+    /**
+     * Page through applications newest-first with optional status / borrower type filters.
+     */
+    public ApplicationPager pager(String status, String borrowerType) {
+        return pager(ApplicationQuery.NEWEST_FIRST.withStatus(status).withBorrowerType(borrowerType));
+    }
+
+    /**
+     * Page through applications in the query's order, sorted and filtered by the database.
+     */
+    public ApplicationPager pager(ApplicationQuery query) {
+        return new ApplicationPager(appRepo, DEFAULT_PAGE_SIZE, query);
+    }
 }
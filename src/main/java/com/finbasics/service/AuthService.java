@@ -1,5 +1,9 @@
 package com.finbasics.service;
 
+import com.finbasics.metrics.Counter;
+import com.finbasics.metrics.FlightEvents;
+import com.finbasics.metrics.LatencyHistogram;
+import com.finbasics.metrics.Metrics;
 import com.finbasics.model.User;
 import com.finbasics.persistence.UserRepository;
 import com.finbasics.persistence.AuditRepository;
@@ -20,13 +24,42 @@ public class AuthService {
     private final UserRepository userRepo = new UserRepository();
     private final AuditRepository audit = new AuditRepository();
 
+    private static final LatencyHistogram LOGIN_LATENCY = Metrics.histogram("auth.login");
+    private static final Counter LOGIN_SUCCESS = Metrics.counter("auth.login.success");
+    private static final Counter LOGIN_FAILURE = Metrics.counter("auth.login.failure");
+    private static final Counter REGISTERED = Metrics.counter("auth.register");
+
     private static final Pattern USERNAME_ALLOWED = Pattern.compile("^[A-Za-z0-9._-]{3,50}$");
 
+    /**
+     * Desktop login: authenticate and make the user the current {@link Session}.
+     */
     public User login(String username, String password) throws AuthException {
+        User u = authenticate(username, password);
+        Session.setCurrentUser(u);
+        return u;
+    }
+
+    /**
+     * Server login: authenticate and open a session in {@code sessions}.
+     */
+    public UserSession openSession(SessionRegistry sessions, String username, String password) throws AuthException {
+        return sessions.open(authenticate(username, password));
+    }
+
+    /**
+     * Check credentials and audit the attempt. Touches no session state, so
+     * it is safe to call concurrently.
+     */
+    public User authenticate(String username, String password) throws AuthException {
         if (username == null || username.isBlank() || password == null || password.isBlank()) {
             throw new AuthException("Username and password are required");
         }
 
+        FlightEvents.Login event = new FlightEvents.Login();
+        event.begin();
+        long t = Metrics.start();
+        boolean succeeded = false;
         try {
             // Look up the user by username using the repository instance declared above.
             User u = userRepo.findByUsername(username.trim());
@@ -34,15 +67,25 @@ public class AuthService {
             // If user is not found or password doesn't match, record a failed login and throw.
             if (u == null || !PasswordHasher.matches(password, u.getPasswordHash())) {
                 audit.log(null, "LOGIN_FAIL", "username=" + username);
+                LOGIN_FAILURE.increment();
                 throw new AuthException("Invalid username or password");
             }
 
-            // Successful login: write audit and set session.
+            // Successful login: write audit; the caller decides where the session lives.
             audit.log(u.getId(), "LOGIN_SUCCESS", "user=" + username);
-            Session.setCurrentUser(u);
+            LOGIN_SUCCESS.increment();
+            succeeded = true;
             return u;
         } catch (SQLException e) {
             throw new AuthException("Database error during login", e);
+        } finally {
+            LOGIN_LATENCY.recordSince(t);
+            event.end();
+            if (event.shouldCommit()) {
+                event.username = username;
+                event.succeeded = succeeded;
+                event.commit();
+            }
         }
     }
 
@@ -72,6 +115,7 @@ public class AuthService {
             u.setPasswordHash(hashed);
 
             audit.log(u.getId(), "REGISTER", "user=" + trimmed);
+            REGISTERED.increment();
             Session.setCurrentUser(u);
             return u;
         } catch (SQLException e) {
@@ -88,4 +132,13 @@ public class AuthService {
         audit.log(u != null ? u.getId() : null, "LOGOUT", "");
         Session.clear();
     }
+
+    /**
+     * End a server session opened by {@link #openSession}.
+     */
+    public void closeSession(SessionRegistry sessions, UserSession session) {
+        if (sessions.close(session.token())) {
+            audit.log(session.userId(), "LOGOUT", "");
+        }
+    }
 }
@@ -0,0 +1,129 @@
+package com.finbasics.service;
+
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.scene.Node;
+import javafx.stage.Window;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Runs controller data access off the JavaFX application thread.
+ *
+ * Work runs on a virtual thread; its result is handed back on the FX thread,
+ * so callbacks may touch controls directly. Each screen owns a {@link Scope}
+ * for its reads that cancels whatever it still has in flight when the user
+ * navigates away, and a cancelled task never calls back into a screen that is
+ * gone. Writes go through {@link #write} instead and always report back.
+ */
+public final class BackgroundLoader {
+
+    private static final ExecutorService WORKERS =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ui-load-", 0).factory());
+
+    private BackgroundLoader() {}
+
+    /**
+     * Run a write in the background and report its outcome to {@code onDone}
+     * or {@code onError} on the FX thread. A write belongs to no screen and is
+     * never cancelled, so one of the callbacks always runs; callers keep the
+     * user on the screen (navigation disabled) until it does.
+     */
+    public static <T> void write(Callable<T> work, Consumer<? super T> onDone, Consumer<Throwable> onError) {
+        WORKERS.execute(() -> {
+            try {
+                T value = work.call();
+                Platform.runLater(() -> onDone.accept(value));
+            } catch (Throwable t) {
+                Platform.runLater(() -> onError.accept(t));
+            }
+        });
+    }
+
+    /** A new task scope for one screen. */
+    public static Scope scope() {
+        return new Scope();
+    }
+
+    /**
+     * The outstanding loads of one screen.
+     */
+    public static final class Scope {
+
+        private final Set<CompletableFuture<?>> running = ConcurrentHashMap.newKeySet();
+
+        private Scope() {}
+
+        /**
+         * Run {@code work} in the background and deliver its result to
+         * {@code onDone}, or its failure to {@code onError}, on the FX thread.
+         * Neither callback runs if the load is cancelled first.
+         *
+         * @return a future completed on the FX thread; cancelling it cancels the load
+         */
+        public <T> CompletableFuture<T> load(Callable<T> work, Consumer<? super T> onDone, Consumer<Throwable> onError) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            Future<?> task = WORKERS.submit(() -> {
+                try {
+                    T value = work.call();
+                    Platform.runLater(() -> result.complete(value));
+                } catch (Throwable t) {
+                    Platform.runLater(() -> result.completeExceptionally(t));
+                }
+            });
+            running.add(result);
+            result.whenComplete((value, error) -> {
+                running.remove(result);
+                if (error instanceof CancellationException) {
+                    task.cancel(true);
+                } else if (error != null) {
+                    onError.accept(error);
+                } else {
+                    onDone.accept(value);
+                }
+            });
+            return result;
+        }
+
+        /** As {@link #load(Callable, Consumer, Consumer)}, printing any failure. */
+        public <T> CompletableFuture<T> load(Callable<T> work, Consumer<? super T> onDone) {
+            return load(work, onDone, Throwable::printStackTrace);
+        }
+
+        /**
+         * Cancel every load still in flight. The scope stays usable, so a
+         * screen that is shown again can load afresh.
+         */
+        public void cancelAll() {
+            for (CompletableFuture<?> load : running) {
+                load.cancel(false);
+            }
+        }
+
+        /**
+         * Cancel outstanding loads once {@code anchor} leaves its window,
+         * either because its scene was replaced or because it was detached
+         * from the scene.
+         */
+        public Scope cancelWhenHidden(Node anchor) {
+            ChangeListener<Window> windowGone = (obs, was, now) -> {
+                if (was != null && now == null) cancelAll();
+            };
+            if (anchor.getScene() != null) anchor.getScene().windowProperty().addListener(windowGone);
+            anchor.sceneProperty().addListener((obs, was, now) -> {
+                if (was != null) was.windowProperty().removeListener(windowGone);
+                if (now != null) now.windowProperty().addListener(windowGone);
+                else if (was != null) cancelAll();
+            });
+            return this;
+        }
+    }
+}
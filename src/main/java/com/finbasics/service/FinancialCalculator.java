@@ -1,79 +1,141 @@
 package com.finbasics.service;
 
+import com.finbasics.metrics.FlightEvents;
 import com.finbasics.model.StatementAnalysis;
+import com.finbasics.service.PolicySnapshot.Metric;
 
 /**
  * Centralized engine for financial computations and risk evaluation rules.
+ * Thresholds come from the policies table via {@link PolicyEngine}; this
+ * class only attaches labels, formatting and narratives.
  */
 public class FinancialCalculator {
 
-    public enum Status { STRONG, ACCEPTABLE, WEAK, CRITICAL, NA }
+    public enum Status {
+        STRONG(3), ACCEPTABLE(2), WEAK(1), CRITICAL(0), NA(0);
 
-    public record Evaluation(String label, double value, String formattedValue, Status status, String narrative) {}
+        private final int points;
+
+        Status(int points) { this.points = points; }
+
+        /** Contribution to the overall grade score. */
+        public int points() { return points; }
+    }
+
+    /** Overall risk tier; {@link #NA} when there is no analysis to grade. */
+    public enum Tier {
+        NA("N/A"), TIER_1("Tier 1"), TIER_2("Tier 2"), TIER_3("Tier 3"), TIER_4("Tier 4");
+
+        private static final Tier[] BY_NUMBER = values();
+        private final String label;
+
+        Tier(String label) { this.label = label; }
+
+        public String label() { return label; }
+
+        /** 1-4 for a graded tier, 0 for N/A. */
+        public int number() { return ordinal(); }
+
+        public static Tier of(int number) { return BY_NUMBER[number]; }
+    }
+
+    /** How an Evaluation's value is rendered for display. */
+    public enum ValueFormat { RATIO, PERCENT_1DP, PERCENT, INTEGER, UNSECURED }
+
+    /**
+     * A metric evaluation for display. The value is formatted only when
+     * {@link #formattedValue()} is called, so building one costs no formatting.
+     */
+    public record Evaluation(String label, double value, ValueFormat format, Status status, String narrative) {
+
+        public String formattedValue() {
+            return switch (format) {
+                case RATIO -> String.format("%.2fx", value);
+                case PERCENT_1DP -> String.format("%.1f%%", value * 100);
+                case PERCENT -> String.format("%.0f%%", value * 100);
+                case INTEGER -> String.valueOf((long) value);
+                case UNSECURED -> "N/A (Unsecured)";
+            };
+        }
+    }
+
+    // ==========================================
+    // Primitive grading API (no allocation, no formatting)
+    // ==========================================
+
+    /** Status of one metric under the current policy. */
+    public static Status status(Metric metric, double value) {
+        return PolicyEngine.current().classify(metric, value);
+    }
+
+    /** Tier as 1-4, or 0 when {@code sa} is null. */
+    public static int tierNumber(StatementAnalysis sa) {
+        FlightEvents.RiskGrade event = new FlightEvents.RiskGrade();
+        event.begin();
+        PolicySnapshot policy = PolicyEngine.current();
+        int tier = policy.tier(sa);
+        event.end();
+        if (event.shouldCommit()) {
+            event.applicationId = sa != null ? sa.getApplicationId() : 0;
+            event.borrowerType = sa != null ? sa.getBorrowerType() : null;
+            event.tier = tier;
+            event.policyVersion = policy.version();
+            event.commit();
+        }
+        return tier;
+    }
+
+    public static Tier grade(StatementAnalysis sa) {
+        return Tier.of(tierNumber(sa));
+    }
+
+    // ==========================================
+    // Display evaluations
+    // ==========================================
 
     // ==========================================
     // SME (Small/Medium Enterprise) Evaluations
     // ==========================================
 
     public static Evaluation evaluateSmeDscr(double dscr) {
-        Status status;
-        String narrative;
-        if (dscr >= 1.50) {
-            status = Status.STRONG;
-            narrative = "Excellent cash flow coverage. High capacity for additional debt.";
-        } else if (dscr >= 1.25) {
-            status = Status.ACCEPTABLE;
-            narrative = "Sufficient cash flow to service debt based on standard underwriting criteria.";
-        } else if (dscr >= 1.00) {
-            status = Status.WEAK;
-            narrative = "Tight cash flow. Business is barely covering existing obligations.";
-        } else {
-            status = Status.CRITICAL;
-            narrative = "Negative cash flow coverage. Cannot afford new debt without restructuring.";
-        }
-        return new Evaluation("DSCR", dscr, String.format("%.2fx", dscr), status, narrative);
+        Status status = PolicyEngine.current().classify(Metric.DSCR, dscr);
+        String narrative = switch (status) {
+            case STRONG -> "Excellent cash flow coverage. High capacity for additional debt.";
+            case ACCEPTABLE -> "Sufficient cash flow to service debt based on standard underwriting criteria.";
+            case WEAK -> "Tight cash flow. Business is barely covering existing obligations.";
+            default -> "Negative cash flow coverage. Cannot afford new debt without restructuring.";
+        };
+        return new Evaluation("DSCR", dscr, ValueFormat.RATIO, status, narrative);
     }
 
     public static Evaluation evaluateSmeCurrentRatio(double ratio) {
-        Status status;
-        String narrative;
-        if (ratio >= 1.5) {
-            status = Status.STRONG;
-            narrative = "Strong liquidity position. Short-term assets comfortably cover liabilities.";
-        } else if (ratio >= 1.0) {
-            status = Status.ACCEPTABLE;
-            narrative = "Adequate liquidity. Current assets balance with current liabilities.";
-        } else {
-            status = Status.WEAK;
-            narrative = "Potential liquidity shortfall. May struggle to meet short-term obligations.";
-        }
-        return new Evaluation("Current Ratio", ratio, String.format("%.2fx", ratio), status, narrative);
+        Status status = PolicyEngine.current().classify(Metric.CURRENT_RATIO, ratio);
+        String narrative = switch (status) {
+            case STRONG -> "Strong liquidity position. Short-term assets comfortably cover liabilities.";
+            case ACCEPTABLE -> "Adequate liquidity. Current assets balance with current liabilities.";
+            default -> "Potential liquidity shortfall. May struggle to meet short-term obligations.";
+        };
+        return new Evaluation("Current Ratio", ratio, ValueFormat.RATIO, status, narrative);
     }
 
     public static Evaluation evaluateSmeQuickRatio(double ratio) {
-        Status status = ratio >= 1.0 ? Status.STRONG : Status.ACCEPTABLE;
-        return new Evaluation("Quick Ratio", ratio, String.format("%.2fx", ratio), status, "Measure of immediate liquidity (excluding inventory).");
+        Status status = PolicyEngine.current().classify(Metric.QUICK_RATIO, ratio);
+        return new Evaluation("Quick Ratio", ratio, ValueFormat.RATIO, status, "Measure of immediate liquidity (excluding inventory).");
     }
 
     public static Evaluation evaluateSmeLeverage(double debtToEquity) {
-        Status status;
-        String narrative;
-        if (debtToEquity <= 1.5) {
-            status = Status.STRONG;
-            narrative = "Low leverage. Business is financed primarily by owner equity.";
-        } else if (debtToEquity <= 3.0) {
-            status = Status.ACCEPTABLE;
-            narrative = "Moderate leverage. Acceptable mix of debt and equity financing.";
-        } else {
-            status = Status.WEAK;
-            narrative = "High leverage. Business is heavily reliant on debt financing.";
-        }
-        return new Evaluation("Debt-to-Equity", debtToEquity, String.format("%.2fx", debtToEquity), status, narrative);
+        Status status = PolicyEngine.current().classify(Metric.DEBT_TO_EQUITY, debtToEquity);
+        String narrative = switch (status) {
+            case STRONG -> "Low leverage. Business is financed primarily by owner equity.";
+            case ACCEPTABLE -> "Moderate leverage. Acceptable mix of debt and equity financing.";
+            default -> "High leverage. Business is heavily reliant on debt financing.";
+        };
+        return new Evaluation("Debt-to-Equity", debtToEquity, ValueFormat.RATIO, status, narrative);
     }
 
     public static Evaluation evaluateSmeProfitability(double netMargin) {
-        Status status = netMargin > 0.10 ? Status.STRONG : (netMargin > 0 ? Status.ACCEPTABLE : Status.WEAK);
-        return new Evaluation("Net Margin", netMargin, String.format("%.1f%%", netMargin * 100), status, "Actual profit remaining after all expenses.");
+        Status status = PolicyEngine.current().classify(Metric.NET_MARGIN, netMargin);
+        return new Evaluation("Net Margin", netMargin, ValueFormat.PERCENT_1DP, status, "Actual profit remaining after all expenses.");
     }
 
     // ==========================================
@@ -81,95 +143,43 @@ public class FinancialCalculator {
     // ==========================================
 
     public static Evaluation evaluateConsumerDti(double dti) {
-        Status status;
-        String narrative;
-        if (dti <= 0.35) {
-            status = Status.STRONG;
-            narrative = "Excellent affordability. Debt payments are a low percentage of income.";
-        } else if (dti <= 0.43) {
-            status = Status.ACCEPTABLE;
-            narrative = "Acceptable affordability. Within standard mortgage/loan guidelines.";
-        } else {
-            status = Status.CRITICAL;
-            narrative = "High debt burden. New loan may cause financial distress.";
-        }
+        Status status = PolicyEngine.current().classify(Metric.DTI, dti);
+        String narrative = switch (status) {
+            case STRONG -> "Excellent affordability. Debt payments are a low percentage of income.";
+            case ACCEPTABLE -> "Acceptable affordability. Within standard mortgage/loan guidelines.";
+            default -> "High debt burden. New loan may cause financial distress.";
+        };
         double displayVal = Math.min(dti, 1.0);
-        return new Evaluation("DTI Ratio", displayVal, String.format("%.1f%%", displayVal * 100), status, narrative);
+        return new Evaluation("DTI Ratio", displayVal, ValueFormat.PERCENT_1DP, status, narrative);
     }
 
     public static Evaluation evaluateConsumerCreditScore(int score) {
-        Status status;
-        String narrative;
-        if (score >= 720) {
-            status = Status.STRONG;
-            narrative = "Prime credit profile. Indicates strong history of repayment.";
-        } else if (score >= 640) {
-            status = Status.ACCEPTABLE;
-            narrative = "Near-prime profile. Acceptable history with some potential minor issues.";
-        } else {
-            status = Status.WEAK;
-            narrative = "Sub-prime profile. Significant credit derogatory marks or limited history.";
-        }
-        return new Evaluation("Credit Score", score, String.valueOf(score), status, narrative);
+        Status status = PolicyEngine.current().classify(Metric.CREDIT_SCORE, score);
+        String narrative = switch (status) {
+            case STRONG -> "Prime credit profile. Indicates strong history of repayment.";
+            case ACCEPTABLE -> "Near-prime profile. Acceptable history with some potential minor issues.";
+            default -> "Sub-prime profile. Significant credit derogatory marks or limited history.";
+        };
+        return new Evaluation("Credit Score", score, ValueFormat.INTEGER, status, narrative);
     }
 
     public static Evaluation evaluateConsumerLtv(double ltv) {
-         if (ltv <= 0.01) return new Evaluation("LTV", 0, "N/A (Unsecured)", Status.NA, "Unsecured facility.");
-
-        Status status;
-        String narrative;
-        if (ltv <= 0.70) {
-            status = Status.STRONG;
-            narrative = "Strong collateral coverage. Significant equity cushion.";
-        } else if (ltv <= 0.90) {
-            status = Status.ACCEPTABLE;
-            narrative = "Adequate collateral coverage. Standard risk level.";
-        } else {
-            status = Status.WEAK;
-            narrative = "Weak collateral coverage. High risk of loss in default event.";
-        }
-        return new Evaluation("LTV", ltv, String.format("%.0f%%", ltv * 100), status, narrative);
+         if (ltv <= 0.01) return new Evaluation("LTV", 0, ValueFormat.UNSECURED, Status.NA, "Unsecured facility.");
+
+        Status status = PolicyEngine.current().classify(Metric.LTV, ltv);
+        String narrative = switch (status) {
+            case STRONG -> "Strong collateral coverage. Significant equity cushion.";
+            case ACCEPTABLE -> "Adequate collateral coverage. Standard risk level.";
+            default -> "Weak collateral coverage. High risk of loss in default event.";
+        };
+        return new Evaluation("LTV", ltv, ValueFormat.PERCENT, status, narrative);
     }
 
     /**
-     * Calculates an overall risk tier based on individual metric evaluations.
+     * Overall risk tier label ("Tier 1" .. "Tier 4", or "N/A"). Display
+     * convenience over {@link #grade}; the label strings are constants.
      */
     public static String calculateOverallRiskGrade(StatementAnalysis sa) {
-        if (sa == null) return "N/A";
-        int score = 0;
-        int maxScore = 0;
-
-        if ("SME".equalsIgnoreCase(sa.getBorrowerType())) {
-            score += statusToScore(evaluateSmeDscr(sa.getDscr()).status);
-            score += statusToScore(evaluateSmeCurrentRatio(sa.getCurrentRatio()).status);
-            score += statusToScore(evaluateSmeLeverage(sa.getDebtToEquity()).status);
-            maxScore = 9; // 3 metrics * 3 max points
-        } else {
-            score += statusToScore(evaluateConsumerDti(sa.getDti()).status);
-            score += statusToScore(evaluateConsumerCreditScore(sa.getCreditScore()).status);
-            maxScore = 6;
-            if (sa.getLtv() > 0.01) {
-                score += statusToScore(evaluateConsumerLtv(sa.getLtv()).status);
-                maxScore += 3;
-            }
-        }
-
-        if (maxScore == 0) return "N/A";
-        double percentage = (double) score / maxScore;
-
-        if (percentage >= 0.85) return "Tier 1"; // Low Risk
-        if (percentage >= 0.65) return "Tier 2"; // Moderate Risk
-        if (percentage >= 0.40) return "Tier 3"; // High Risk
-        return "Tier 4"; // Critical Risk
-    }
-
-    private static int statusToScore(Status s) {
-        return switch (s) {
-            case STRONG -> 3;
-            case ACCEPTABLE -> 2;
-            case WEAK -> 1;
-            case CRITICAL -> 0;
-            default -> 0;
-        };
+        return grade(sa).label();
     }
-}
\ No newline at end of file
+}
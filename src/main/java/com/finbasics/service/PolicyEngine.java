@@ -0,0 +1,84 @@
+package com.finbasics.service;
+
+import com.finbasics.persistence.PolicyRepository;
+
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link PolicySnapshot} and swaps it atomically when the
+ * policies table changes.
+ *
+ * Readers call {@link #current()} and keep using the snapshot they got, so a
+ * single assessment is always evaluated against one consistent policy
+ * version. {@link #refresh()} costs one primary-key read when nothing changed.
+ *
+ * After {@link #start()} the snapshot follows the table on its own: a commit
+ * hook refreshes after every policy write made through this process, and a
+ * poll every finbasics.policy.pollSeconds (default 30) picks up edits made
+ * elsewhere. Readers never touch the database.
+ */
+public final class PolicyEngine {
+
+    private static final AtomicReference<PolicySnapshot> CURRENT = new AtomicReference<>(PolicySnapshot.defaults());
+    private static final PolicyRepository repo = new PolicyRepository();
+    private static final AtomicBoolean STARTED = new AtomicBoolean();
+    private static final ScheduledExecutorService REFRESHER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "finbasics-policy-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private PolicyEngine() {}
+
+    public static PolicySnapshot current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Load the stored policy now and keep following it. The database must be
+     * initialized; later calls only refresh.
+     */
+    public static PolicySnapshot start() {
+        if (STARTED.compareAndSet(false, true)) {
+            PolicyRepository.onChange(() -> REFRESHER.execute(PolicyEngine::refresh));
+            long seconds = Math.max(1, Long.getLong("finbasics.policy.pollSeconds", 30));
+            REFRESHER.scheduleWithFixedDelay(PolicyEngine::refresh, seconds, seconds, TimeUnit.SECONDS);
+        }
+        return refresh();
+    }
+
+    /**
+     * Reload and recompile if the stored policy version moved. On a load or
+     * compile error the previous snapshot stays in place.
+     */
+    public static PolicySnapshot refresh() {
+        PolicySnapshot snapshot = CURRENT.get();
+        try {
+            if (repo.currentVersion() == snapshot.version()) return snapshot;
+            PolicyRepository.Policies policies = repo.loadAll();
+            PolicySnapshot compiled = PolicySnapshot.compile(policies.version(), policies.values());
+            // Never replace a newer snapshot loaded concurrently.
+            return CURRENT.accumulateAndGet(compiled, (old, neu) -> neu.version() > old.version() ? neu : old);
+        } catch (SQLException | RuntimeException e) {
+            e.printStackTrace();
+            return snapshot;
+        }
+    }
+
+    /**
+     * Change one policy value and swap in the recompiled snapshot. The value
+     * is validated before it is written.
+     */
+    public static PolicySnapshot update(String key, String value) throws SQLException {
+        PolicyRepository.Policies policies = repo.loadAll();
+        policies.values().put(key, value);
+        PolicySnapshot.compile(policies.version(), policies.values());
+        repo.put(key, value);
+        return refresh();
+    }
+}
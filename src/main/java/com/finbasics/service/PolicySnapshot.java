@@ -0,0 +1,239 @@
+package com.finbasics.service;
+
+import com.finbasics.model.StatementAnalysis;
+import com.finbasics.service.FinancialCalculator.Status;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable, versioned view of the credit policy, compiled into a flat
+ * decision table.
+ *
+ * Every metric is a short ladder of (threshold, status) steps tried in order,
+ * plus a fallback status. "Lower is better" metrics are stored negated and
+ * strict comparisons are stored as the next representable double, so every
+ * step is a plain {@code x >= limit} test. Classifying and grading allocate
+ * nothing.
+ */
+public final class PolicySnapshot {
+
+    // Policy keys. The *.min / *.max keys are also the eligibility cut-offs.
+    public static final String SME_DSCR_STRONG = "sme.dscr.strong";
+    public static final String SME_DSCR_MIN = "sme.dscr.min";
+    public static final String SME_DSCR_FLOOR = "sme.dscr.floor";
+    public static final String SME_CURRENT_RATIO_STRONG = "sme.current_ratio.strong";
+    public static final String SME_CURRENT_RATIO_MIN = "sme.current_ratio.min";
+    public static final String SME_QUICK_RATIO_STRONG = "sme.quick_ratio.strong";
+    public static final String SME_DEBT_TO_EQUITY_STRONG = "sme.debt_to_equity.strong";
+    public static final String SME_DEBT_TO_EQUITY_MAX = "sme.debt_to_equity.max";
+    public static final String SME_NET_MARGIN_STRONG = "sme.net_margin.strong";
+    public static final String SME_NET_MARGIN_MIN = "sme.net_margin.min";
+    public static final String SME_DSO_MAX = "sme.dso.max";
+    public static final String CONSUMER_DTI_STRONG = "consumer.dti.strong";
+    public static final String CONSUMER_DTI_MAX = "consumer.dti.max";
+    public static final String CONSUMER_CREDIT_SCORE_STRONG = "consumer.credit_score.strong";
+    public static final String CONSUMER_CREDIT_SCORE_MIN = "consumer.credit_score.min";
+    public static final String CONSUMER_LTV_STRONG = "consumer.ltv.strong";
+    public static final String CONSUMER_LTV_MAX = "consumer.ltv.max.secured";
+    public static final String GRADE_TIER1_MIN = "grade.tier1.min";
+    public static final String GRADE_TIER2_MIN = "grade.tier2.min";
+    public static final String GRADE_TIER3_MIN = "grade.tier3.min";
+
+    /** Metrics with a status ladder. */
+    public enum Metric { DSCR, CURRENT_RATIO, QUICK_RATIO, DEBT_TO_EQUITY, NET_MARGIN, DTI, CREDIT_SCORE, LTV }
+
+    /** Values used when a key is missing from the table (and before the first load). */
+    static final Map<String, String> DEFAULTS = Map.ofEntries(
+            Map.entry(SME_DSCR_STRONG, "1.50"),
+            Map.entry(SME_DSCR_MIN, "1.25"),
+            Map.entry(SME_DSCR_FLOOR, "1.00"),
+            Map.entry(SME_CURRENT_RATIO_STRONG, "1.50"),
+            Map.entry(SME_CURRENT_RATIO_MIN, "1.20"),
+            Map.entry(SME_QUICK_RATIO_STRONG, "1.00"),
+            Map.entry(SME_DEBT_TO_EQUITY_STRONG, "1.50"),
+            Map.entry(SME_DEBT_TO_EQUITY_MAX, "3.00"),
+            Map.entry(SME_NET_MARGIN_STRONG, "0.10"),
+            Map.entry(SME_NET_MARGIN_MIN, "0.00"),
+            Map.entry(SME_DSO_MAX, "90"),
+            Map.entry(CONSUMER_DTI_STRONG, "0.35"),
+            Map.entry(CONSUMER_DTI_MAX, "0.45"),
+            Map.entry(CONSUMER_CREDIT_SCORE_STRONG, "720"),
+            Map.entry(CONSUMER_CREDIT_SCORE_MIN, "640"),
+            Map.entry(CONSUMER_LTV_STRONG, "0.70"),
+            Map.entry(CONSUMER_LTV_MAX, "0.90"),
+            Map.entry(GRADE_TIER1_MIN, "0.85"),
+            Map.entry(GRADE_TIER2_MIN, "0.65"),
+            Map.entry(GRADE_TIER3_MIN, "0.40"));
+
+    private static final int MAX_STEPS = 3;
+    private static final int METRICS = Metric.values().length;
+
+    private final long version;
+    private final Map<String, Double> values;
+
+    // Decision table, indexed [metric * MAX_STEPS + step].
+    private final double[] limits = new double[METRICS * MAX_STEPS];
+    private final Status[] outcomes = new Status[METRICS * MAX_STEPS];
+    private final int[] steps = new int[METRICS];
+    private final double[] sign = new double[METRICS];
+    private final Status[] fallback = new Status[METRICS];
+    private final double tier1, tier2, tier3;
+
+    private PolicySnapshot(long version, Map<String, Double> values) {
+        this.version = version;
+        this.values = values;
+
+        higherIsBetter(Metric.DSCR, Status.CRITICAL,
+                SME_DSCR_STRONG, Status.STRONG, SME_DSCR_MIN, Status.ACCEPTABLE, SME_DSCR_FLOOR, Status.WEAK);
+        higherIsBetter(Metric.CURRENT_RATIO, Status.WEAK,
+                SME_CURRENT_RATIO_STRONG, Status.STRONG, SME_CURRENT_RATIO_MIN, Status.ACCEPTABLE);
+        higherIsBetter(Metric.QUICK_RATIO, Status.ACCEPTABLE, SME_QUICK_RATIO_STRONG, Status.STRONG);
+        lowerIsBetter(Metric.DEBT_TO_EQUITY, Status.WEAK,
+                SME_DEBT_TO_EQUITY_STRONG, Status.STRONG, SME_DEBT_TO_EQUITY_MAX, Status.ACCEPTABLE);
+        higherIsBetter(Metric.NET_MARGIN, Status.WEAK,
+                SME_NET_MARGIN_STRONG, Status.STRONG, SME_NET_MARGIN_MIN, Status.ACCEPTABLE);
+        // Net margin thresholds are strict (> rather than >=).
+        int nm = Metric.NET_MARGIN.ordinal() * MAX_STEPS;
+        limits[nm] = Math.nextUp(limits[nm]);
+        limits[nm + 1] = Math.nextUp(limits[nm + 1]);
+        lowerIsBetter(Metric.DTI, Status.CRITICAL,
+                CONSUMER_DTI_STRONG, Status.STRONG, CONSUMER_DTI_MAX, Status.ACCEPTABLE);
+        higherIsBetter(Metric.CREDIT_SCORE, Status.WEAK,
+                CONSUMER_CREDIT_SCORE_STRONG, Status.STRONG, CONSUMER_CREDIT_SCORE_MIN, Status.ACCEPTABLE);
+        lowerIsBetter(Metric.LTV, Status.WEAK,
+                CONSUMER_LTV_STRONG, Status.STRONG, CONSUMER_LTV_MAX, Status.ACCEPTABLE);
+
+        tier1 = get(GRADE_TIER1_MIN);
+        tier2 = get(GRADE_TIER2_MIN);
+        tier3 = get(GRADE_TIER3_MIN);
+        if (!(tier1 >= tier2 && tier2 >= tier3)) {
+            throw new IllegalArgumentException("Grade tier thresholds are out of order");
+        }
+    }
+
+    /**
+     * Compile raw policy rows. Missing keys fall back to {@link #DEFAULTS};
+     * a rule value that does not parse or ladders out of order is rejected with
+     * IllegalArgumentException so a bad edit can never be swapped in.
+     */
+    public static PolicySnapshot compile(long version, Map<String, String> raw) {
+        Map<String, Double> parsed = new HashMap<>();
+        for (Map.Entry<String, String> e : DEFAULTS.entrySet()) {
+            parsed.put(e.getKey(), parse(e.getKey(), e.getValue()));
+        }
+        for (Map.Entry<String, String> e : raw.entrySet()) {
+            if (DEFAULTS.containsKey(e.getKey())) {
+                parsed.put(e.getKey(), parse(e.getKey(), e.getValue()));
+            } else {
+                // Keys the rules don't use (pricing, ...) are kept only if numeric.
+                try {
+                    parsed.put(e.getKey(), Double.parseDouble(e.getValue().trim()));
+                } catch (NumberFormatException | NullPointerException ignored) {
+                }
+            }
+        }
+        return new PolicySnapshot(version, Collections.unmodifiableMap(parsed));
+    }
+
+    /** Code defaults, version 0. */
+    public static PolicySnapshot defaults() {
+        return compile(0, Map.of());
+    }
+
+    public long version() {
+        return version;
+    }
+
+    /** Numeric value of a policy key. */
+    public double get(String key) {
+        Double v = values.get(key);
+        if (v == null) throw new IllegalArgumentException("Unknown policy key: " + key);
+        return v;
+    }
+
+    public Status classify(Metric metric, double value) {
+        int m = metric.ordinal();
+        int base = m * MAX_STEPS;
+        double x = value * sign[m];
+        for (int i = 0, n = steps[m]; i < n; i++) {
+            if (x >= limits[base + i]) return outcomes[base + i];
+        }
+        return fallback[m];
+    }
+
+    /**
+     * Overall risk tier 1-4, or 0 when there is nothing to grade.
+     */
+    public int tier(StatementAnalysis sa) {
+        if (sa == null) return 0;
+        if ("SME".equalsIgnoreCase(sa.getBorrowerType())) {
+            return smeTier(sa.getDscr(), sa.getCurrentRatio(), sa.getDebtToEquity());
+        }
+        return consumerTier(sa.getDti(), sa.getCreditScore(), sa.getLtv());
+    }
+
+    /** Tier 1-4 for an SME borrower's ratios. */
+    public int smeTier(double dscr, double currentRatio, double debtToEquity) {
+        int score = classify(Metric.DSCR, dscr).points()
+                + classify(Metric.CURRENT_RATIO, currentRatio).points()
+                + classify(Metric.DEBT_TO_EQUITY, debtToEquity).points();
+        return tierFor(score, 9); // 3 metrics * 3 max points
+    }
+
+    /** Tier 1-4 for a consumer; LTV counts only for secured loans (above 1%). */
+    public int consumerTier(double dti, double creditScore, double ltv) {
+        int score = classify(Metric.DTI, dti).points()
+                + classify(Metric.CREDIT_SCORE, creditScore).points();
+        int maxScore = 6;
+        if (ltv > 0.01) {
+            score += classify(Metric.LTV, ltv).points();
+            maxScore += 3;
+        }
+        return tierFor(score, maxScore);
+    }
+
+    /**
+     * Tier 1-4 for a points total out of {@code maxScore} (3 points per metric).
+     */
+    public int tierFor(int score, int maxScore) {
+        double percentage = (double) score / maxScore;
+        if (percentage >= tier1) return 1; // Low Risk
+        if (percentage >= tier2) return 2; // Moderate Risk
+        if (percentage >= tier3) return 3; // High Risk
+        return 4; // Critical Risk
+    }
+
+    private void higherIsBetter(Metric metric, Status otherwise, Object... ladder) {
+        define(metric, 1.0, otherwise, ladder);
+    }
+
+    private void lowerIsBetter(Metric metric, Status otherwise, Object... ladder) {
+        define(metric, -1.0, otherwise, ladder);
+    }
+
+    private void define(Metric metric, double direction, Status otherwise, Object[] ladder) {
+        int m = metric.ordinal();
+        int base = m * MAX_STEPS;
+        int n = ladder.length / 2;
+        for (int i = 0; i < n; i++) {
+            limits[base + i] = get((String) ladder[2 * i]) * direction;
+            outcomes[base + i] = (Status) ladder[2 * i + 1];
+            if (i > 0 && limits[base + i] > limits[base + i - 1]) {
+                throw new IllegalArgumentException("Thresholds for " + metric + " are out of order at " + ladder[2 * i]);
+            }
+        }
+        steps[m] = n;
+        sign[m] = direction;
+        fallback[m] = otherwise;
+    }
+
+    private static double parse(String key, String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new IllegalArgumentException("Policy " + key + " is not a number: " + value, e);
+        }
+    }
+}
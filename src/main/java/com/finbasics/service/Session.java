@@ -3,22 +3,27 @@ package com.finbasics.service;
 import com.finbasics.model.User;
 
 /**
- * Session - very small application session holder.
+ * Session - the desktop app's single {@link UserSession}.
  *
- * Option 2 documentation style: minimal Javadoc for class and methods,
- * with short inline comments for non-obvious lines.
- *
- * PURPOSE: store the currently authenticated user for the running application.
+ * PURPOSE: give the JavaFX controllers one place to find the logged-in user.
  * DESIGN NOTES:
- * - This is a simple global (static) holder. It is easy to use but has drawbacks
- *   (global mutable state, not thread-safe). For small desktop apps this is often
- *   acceptable; for server apps prefer request-scoped/session-scoped storage.
+ * - The desktop app has exactly one user at a time, so this static holder is
+ *   an adapter over one local (non-expiring) UserSession.
+ * - Services take the UserSession as a parameter; only controllers (and the
+ *   one-argument convenience methods they call) read it from here. Server and
+ *   batch code use {@link SessionRegistry} or their own sessions instead.
  */
 public class Session {
 
-    // The currently logged-in user. Static so it is accessible from anywhere.
-    // Be cautious: static mutable state can make testing and concurrency harder.
-    private static User currentUser;
+    // Replaced as a whole on login/logout, so readers never see a half-updated session.
+    private static volatile UserSession current;
+
+    /**
+     * The desktop session, or null if no one is logged in.
+     */
+    public static UserSession current() {
+        return current;
+    }
 
     /**
      * Return the current user, or null if no one is logged in.
@@ -26,26 +31,23 @@ public class Session {
      * @return current {@link User} or {@code null}
      */
     public static User getCurrentUser() {
-        // Simple getter - returns the shared static reference
-        return currentUser;
+        UserSession s = current;
+        return s == null ? null : s.user();
     }
 
     /**
-     * Set the current user after a successful login.
+     * Start a new desktop session for the user after a successful login.
      *
-     * @param u the authenticated user (must not be the user's plain-text password)
+     * @param u the authenticated user; null clears the session
      */
     public static void setCurrentUser(User u) {
-        // Simple setter - replace the shared reference
-        currentUser = u;
+        current = u == null ? null : UserSession.local(u);
     }
 
     /**
      * Clear the current session (logout).
-     * Sets the stored user reference to null.
      */
     public static void clear() {
-        // Remove the reference so subsequent calls see no user
-        currentUser = null;
+        current = null;
     }
 }
@@ -0,0 +1,86 @@
+package com.finbasics.service;
+
+import com.finbasics.model.User;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Concurrent token -> {@link UserSession} map with a sliding idle timeout.
+ *
+ * Lookups are a single ConcurrentHashMap read plus an expiry check; expired
+ * sessions are removed when they are next looked up or by
+ * {@link #purgeExpired()}. Tokens are 256-bit random, URL-safe base64.
+ */
+public final class SessionRegistry {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final ConcurrentHashMap<String, UserSession> sessions = new ConcurrentHashMap<>();
+    private final Duration ttl;
+
+    public SessionRegistry(Duration ttl) {
+        if (ttl.isNegative() || ttl.isZero()) throw new IllegalArgumentException("ttl must be positive");
+        this.ttl = ttl;
+    }
+
+    /**
+     * Build with the finbasics.session.ttlMinutes idle timeout (default 30).
+     */
+    public static SessionRegistry fromSystemProperties() {
+        return new SessionRegistry(Duration.ofMinutes(Long.getLong("finbasics.session.ttlMinutes", 30)));
+    }
+
+    /** Start a session for an authenticated user. */
+    public UserSession open(User user) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        UserSession session = new UserSession(token, user, ttl, System.currentTimeMillis());
+        sessions.put(token, session);
+        return session;
+    }
+
+    /**
+     * The live session for {@code token}, extending its timeout, or null if
+     * the token is unknown or has expired.
+     */
+    public UserSession find(String token) {
+        if (token == null) return null;
+        UserSession s = sessions.get(token);
+        if (s == null) return null;
+        long now = System.currentTimeMillis();
+        if (s.isExpired(now)) {
+            sessions.remove(token, s);
+            return null;
+        }
+        s.touch(now);
+        return s;
+    }
+
+    /** End a session; returns false if it was not open. */
+    public boolean close(String token) {
+        UserSession s = token == null ? null : sessions.remove(token);
+        if (s == null) return false;
+        s.expire();
+        return true;
+    }
+
+    /** Drop every expired session; returns how many were removed. */
+    public int purgeExpired() {
+        long now = System.currentTimeMillis();
+        int before = sessions.size();
+        sessions.values().removeIf(s -> s.isExpired(now));
+        return before - sessions.size();
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    public Duration ttl() {
+        return ttl;
+    }
+}
@@ -1,5 +1,6 @@
 package com.finbasics.service;
 
+import com.finbasics.metrics.FlightEvents;
 import com.finbasics.model.NewApplication;
 import com.finbasics.model.StatementAnalysis;
 
@@ -13,10 +14,19 @@ import java.time.LocalDate;
 public class StatementAnalysisService {
 
     public StatementAnalysis buildAutoAnalysis(NewApplication app, int applicationId) {
+        FlightEvents.AnalysisBuild event = new FlightEvents.AnalysisBuild();
+        event.begin();
         boolean isSme = "SME".equalsIgnoreCase(app.getBorrowerType());
-        return isSme
+        StatementAnalysis sa = isSme
                 ? buildSmeAnalysis(app, applicationId)
                 : buildConsumerAnalysis(app, applicationId);
+        event.end();
+        if (event.shouldCommit()) {
+            event.applicationId = applicationId;
+            event.borrowerType = app.getBorrowerType();
+            event.commit();
+        }
+        return sa;
     }
 
     // ---------------- SME FLOW ----------------
@@ -177,14 +187,19 @@ public class StatementAnalysisService {
     }
 
     private double annuityAnnual(double principal, double rate, int years) {
-        int n = years;
-        double r = rate;
-        return principal * (r / (1 - Math.pow(1 + r, -n)));
+        return annuityPayment(principal, rate, years);
     }
 
     private double annuityMonthly(double principal, double monthlyRate, int periods) {
+        return annuityPayment(principal, monthlyRate, periods);
+    }
+
+    /**
+     * Level payment per period for a fully amortising loan.
+     */
+    public static double annuityPayment(double principal, double periodRate, int periods) {
         int n = periods;
-        double r = monthlyRate;
+        double r = periodRate;
         return principal * (r / (1 - Math.pow(1 + r, -n)));
     }
 
@@ -0,0 +1,92 @@
+package com.finbasics.service;
+
+import com.finbasics.model.User;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * One authenticated user's session: who they are plus the small amount of
+ * per-session UI state (the application being worked on). Passed explicitly
+ * to the services so concurrent callers never share state.
+ *
+ * Sessions from a {@link SessionRegistry} expire after a sliding idle
+ * timeout; {@link #local(User)} sessions (desktop app, headless tools) never do.
+ */
+public final class UserSession {
+
+    private static final long NEVER = Long.MAX_VALUE;
+    // Only move the deadline when it would change by more than this, to keep lookups read-mostly.
+    private static final long TOUCH_GRANULARITY_MILLIS = 1000;
+
+    private final String token;
+    private final User user;
+    private final Instant createdAt;
+    private final long ttlMillis;
+    private volatile long expiresAtMillis;
+    private volatile Integer currentApplicationId;
+
+    UserSession(String token, User user, Duration ttl, long nowMillis) {
+        if (user == null) throw new IllegalArgumentException("user is required");
+        this.token = token;
+        this.user = user;
+        this.createdAt = Instant.ofEpochMilli(nowMillis);
+        this.ttlMillis = ttl == null ? NEVER : ttl.toMillis();
+        this.expiresAtMillis = ttl == null ? NEVER : nowMillis + ttlMillis;
+    }
+
+    /**
+     * A non-expiring session that is not held in any registry.
+     */
+    public static UserSession local(User user) {
+        return new UserSession(null, user, null, System.currentTimeMillis());
+    }
+
+    /** Registry token, or null for a local session. */
+    public String token() {
+        return token;
+    }
+
+    public User user() {
+        return user;
+    }
+
+    public int userId() {
+        return user.getId();
+    }
+
+    public Instant createdAt() {
+        return createdAt;
+    }
+
+    /** When the session lapses if not used again; null if it never does. */
+    public Instant expiresAt() {
+        long at = expiresAtMillis;
+        return at == NEVER ? null : Instant.ofEpochMilli(at);
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+
+    /** Extend the idle timeout from {@code nowMillis}. */
+    void touch(long nowMillis) {
+        if (ttlMillis == NEVER) return;
+        long next = nowMillis + ttlMillis;
+        if (next - expiresAtMillis > TOUCH_GRANULARITY_MILLIS) expiresAtMillis = next;
+    }
+
+    /** End the session now. */
+    void expire() {
+        expiresAtMillis = Long.MIN_VALUE;
+    }
+
+    /** Application opened from the dashboard, or null. */
+    public Integer currentApplicationId() {
+        return currentApplicationId;
+    }
+
+    public void setCurrentApplicationId(Integer id) {
+        this.currentApplicationId = id;
+    }
+}
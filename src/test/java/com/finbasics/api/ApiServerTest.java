@@ -0,0 +1,134 @@
+package com.finbasics.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import com.finbasics.persistence.Database;
+import com.finbasics.service.PolicyEngine;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Drives the HTTP API end to end against a throwaway database.
+ */
+public class ApiServerTest {
+
+    @ClassRule
+    public static TemporaryFolder tmp = new TemporaryFolder();
+
+    private static ApiServer server;
+    private static HttpClient client;
+    private static String token;
+
+    @BeforeClass
+    public static void start() throws Exception {
+        Path db = tmp.getRoot().toPath().resolve("api.db");
+        Database.init(db);
+        PolicyEngine.refresh();
+        server = ApiServer.start(new InetSocketAddress("127.0.0.1", 0));
+        client = HttpClient.newHttpClient();
+        token = login();
+    }
+
+    @AfterClass
+    public static void stop() {
+        server.stop(0);
+        Database.shutdown();
+    }
+
+    @Test
+    public void submitReadGradeAndDecide() throws Exception {
+        HttpResponse<String> created = call("POST", "/api/applications", """
+                {"borrowerType": "SME", "borrowerName": "Acme \\"Tools\\" LLC", "borrowerIdNumber": "12-3456789",
+                 "productType": "SME Term Loan", "requestedAmount": 250000, "businessName": "Acme Tools"}
+                """);
+        assertEquals(created.body(), 201, created.statusCode());
+        Map<String, Object> app = Json.parseObject(created.body());
+        long id = (Long) app.get("id");
+        assertEquals("Acme \"Tools\" LLC", app.get("borrowerName"));
+        assertEquals("ANALYZED", app.get("status"));
+
+        Map<String, Object> header = Json.parseObject(call("GET", "/api/applications/" + id, null).body());
+        assertEquals(app.get("applicationNumber"), header.get("applicationNumber"));
+
+        Map<String, Object> analysis = Json.parseObject(call("GET", "/api/applications/" + id + "/analysis", null).body());
+        assertTrue((Double) analysis.get("dscr") > 0);
+
+        Map<String, Object> grade = Json.parseObject(call("GET", "/api/applications/" + id + "/grade", null).body());
+        assertEquals(app.get("tier"), grade.get("tier"));
+        assertEquals(5, ((List<?>) grade.get("metrics")).size());
+
+        HttpResponse<String> decided = call("PUT", "/api/applications/" + id + "/status", "{\"status\":\"APPROVED\"}");
+        assertEquals(decided.body(), 200, decided.statusCode());
+        assertEquals("APPROVED", Json.parseObject(decided.body()).get("status"));
+    }
+
+    @Test
+    public void requiresALiveSession() throws Exception {
+        String saved = token;
+        try {
+            token = null;
+            assertEquals(401, call("GET", "/api/applications/1", null).statusCode());
+            assertEquals(401, call("POST", "/api/sessions", "{\"username\":\"admin\",\"password\":\"wrong\"}").statusCode());
+
+            token = login();
+            assertEquals(200, call("DELETE", "/api/sessions", null).statusCode());
+            assertEquals(401, call("GET", "/api/applications/1", null).statusCode());
+        } finally {
+            token = saved;
+        }
+    }
+
+    @Test
+    public void rejectsBadRequests() throws Exception {
+        assertEquals(404, call("GET", "/api/applications/999999", null).statusCode());
+        assertEquals(404, call("GET", "/api/nothing", null).statusCode());
+        assertEquals(405, call("DELETE", "/api/applications/1", null).statusCode());
+        assertEquals(400, call("POST", "/api/applications", "{not json").statusCode());
+        assertEquals(400, call("POST", "/api/applications", "{\"borrowerType\":\"SME\"}").statusCode());
+        assertEquals(400, call("PUT", "/api/applications/1/status", "{\"status\":\"PENDING\"}").statusCode());
+        // Well under the body cap, but deep enough to overflow a recursive parser.
+        assertEquals(400, call("POST", "/api/applications", "[".repeat(10_000)).statusCode());
+    }
+
+    @Test
+    public void jsonNestingIsBounded() {
+        String ok = "[".repeat(Json.MAX_DEPTH) + "]".repeat(Json.MAX_DEPTH);
+        assertEquals(1, ((List<?>) Json.parse(ok)).size());
+        String deep = "[".repeat(Json.MAX_DEPTH + 1) + "]".repeat(Json.MAX_DEPTH + 1);
+        try {
+            Json.parse(deep);
+            fail("parsed " + (Json.MAX_DEPTH + 1) + " levels");
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().startsWith("Nesting"));
+        }
+    }
+
+    private static String login() throws Exception {
+        HttpResponse<String> r = call("POST", "/api/sessions", "{\"username\":\"admin\",\"password\":\"admin123\"}");
+        assertEquals(r.body(), 201, r.statusCode());
+        return (String) Json.parseObject(r.body()).get("token");
+    }
+
+    private static HttpResponse<String> call(String method, String path, String body) throws Exception {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.port() + path));
+        b.method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        if (body != null) b.header("Content-Type", "application/json");
+        if (token != null) b.header("Authorization", "Bearer " + token);
+        return client.send(b.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
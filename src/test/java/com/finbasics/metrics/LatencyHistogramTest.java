@@ -0,0 +1,51 @@
+package com.finbasics.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Bucket math and percentile accuracy of {@link LatencyHistogram}.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void everyValueFallsInsideItsBucket() {
+        for (long v = 0; v < 1_000_000; v += 7) {
+            checkBucket(v);
+        }
+        for (int shift = 20; shift < 63; shift++) {
+            checkBucket(1L << shift);
+            checkBucket((1L << shift) - 1);
+            checkBucket((1L << shift) + 12345);
+        }
+        checkBucket(Long.MAX_VALUE);
+    }
+
+    private static void checkBucket(long v) {
+        int i = LatencyHistogram.indexOf(v);
+        assertTrue("upper bound of " + v, LatencyHistogram.upperBound(i) >= v);
+        if (i > 0) {
+            assertTrue("lower bound of " + v, LatencyHistogram.upperBound(i - 1) < v);
+        }
+    }
+
+    @Test
+    public void percentilesAreWithinThreePercent() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) {
+            h.record(v * 1_000);
+        }
+        LatencyHistogram.Snapshot s = h.snapshot();
+        assertEquals(100_000, s.count());
+        assertEquals(100_000_000, s.max());
+        assertWithin(50_000_000, s.p50());
+        assertWithin(99_000_000, s.p99());
+        assertWithin(99_900_000, s.p999());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(expected + " vs " + actual, Math.abs(actual - expected) <= expected * 0.03);
+    }
+}
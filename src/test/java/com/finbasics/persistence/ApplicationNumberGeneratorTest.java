@@ -0,0 +1,100 @@
+package com.finbasics.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Application numbers under concurrent callers, across block refills, years
+ * and pre-existing numbers. Each test uses its own year's sequence.
+ */
+public class ApplicationNumberGeneratorTest {
+
+    @ClassRule
+    public static TemporaryFolder tmp = new TemporaryFolder();
+
+    @BeforeClass
+    public static void initDatabase() {
+        Database.init(tmp.getRoot().toPath().resolve("appnum.db"));
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        Database.shutdown();
+    }
+
+    @Test
+    public void concurrentCallersNeverShareANumber() throws Exception {
+        ApplicationNumberGenerator generator = new ApplicationNumberGenerator(3);
+        int threads = 16;
+        int perThread = 150;
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Void>> callers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                callers.add(() -> {
+                    for (int i = 0; i < perThread; i++) seen.add(generator.next(2030));
+                    return null;
+                });
+            }
+            for (Future<Void> f : pool.invokeAll(callers)) f.get();
+        } finally {
+            pool.shutdown();
+        }
+        // Blocks are handed out whole and in order, so the numbers are exactly 1..N.
+        assertEquals(threads * perThread, seen.size());
+        assertTrue(seen.contains("APP-2030-0001"));
+        assertTrue(seen.contains(ApplicationNumberGenerator.format(2030, threads * perThread)));
+    }
+
+    @Test
+    public void aNewYearStartsItsOwnSequence() throws SQLException {
+        ApplicationNumberGenerator generator = new ApplicationNumberGenerator(100);
+        assertEquals("APP-2031-0001", generator.next(2031));
+        assertEquals("APP-2031-0002", generator.next(2031));
+        assertEquals("APP-2032-0001", generator.next(2032));
+    }
+
+    @Test
+    public void seedsAboveNumbersAlreadyIssued() throws SQLException {
+        try (Connection c = Database.getConnection(); Statement st = c.createStatement()) {
+            for (String number : new String[] {"APP-2033-0041", "APP-2033-12345", "APP-2034-0007"}) {
+                st.executeUpdate("""
+                        INSERT INTO applications(application_number, borrower_type, borrower_name, borrower_id_number,
+                            product_type, requested_amount, status, created_by, created_at, updated_at)
+                        VALUES('%s', 'SME', 'Legacy', '12-3456789', 'SME Term Loan', 1000, 'SUBMITTED', 1,
+                            '2024-01-01T00:00:00.000000000Z', '2024-01-01T00:00:00.000000000Z')""".formatted(number));
+            }
+        }
+        ApplicationNumberGenerator generator = new ApplicationNumberGenerator(10);
+        assertEquals("APP-2033-12346", generator.next(2033));
+        assertEquals("APP-2034-0008", generator.next(2034));
+    }
+
+    @Test
+    public void formatsFourDigitsMinimum() {
+        assertEquals("APP-2024-0001", ApplicationNumberGenerator.format(2024, 1));
+        assertEquals("APP-2024-0042", ApplicationNumberGenerator.format(2024, 42));
+        assertEquals("APP-2024-9999", ApplicationNumberGenerator.format(2024, 9999));
+        assertEquals("APP-2024-10000", ApplicationNumberGenerator.format(2024, 10000));
+        assertEquals("APP-2024-123456", ApplicationNumberGenerator.format(2024, 123456));
+    }
+}
@@ -0,0 +1,188 @@
+package com.finbasics.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.finbasics.model.ApplicationRow;
+import com.finbasics.model.NewApplication;
+import com.finbasics.persistence.ApplicationRepository.ChangeMark;
+import com.finbasics.persistence.ApplicationRepository.Delta;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sqlite.ProgressHandler;
+
+/**
+ * Repository reads against a throwaway database.
+ */
+public class ApplicationRepositoryTest {
+
+    @ClassRule
+    public static TemporaryFolder tmp = new TemporaryFolder();
+
+    private static final ApplicationRepository repo = new ApplicationRepository();
+
+    @BeforeClass
+    public static void initDatabase() {
+        Path db = tmp.getRoot().toPath().resolve("repo.db");
+        Database.init(db);
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        Database.shutdown();
+    }
+
+    @Test
+    public void changedSinceFollowsCommitOrderNotTimestamps() throws SQLException {
+        ChangeMark start = repo.latestChange();
+        int first = repo.createApplication(application("First"), 1);
+        int second = repo.createApplication(application("Second"), 1);
+        // A later change whose timestamp text sorts before the earlier ones.
+        try (Connection c = Database.getConnection(); Statement st = c.createStatement()) {
+            st.executeUpdate("UPDATE applications SET updated_at = '2000-01-01 00:00:00' WHERE id = " + first);
+        }
+        repo.updateStatus(first, "APPROVED");
+
+        Delta delta = repo.findChangedSince(start, 10);
+        assertEquals(List.of(second, first), ids(delta.rows()));
+        assertEquals(repo.latestChange(), delta.next());
+        assertEquals(0, repo.findChangedSince(delta.next(), 10).rows().size());
+    }
+
+    @Test
+    public void pagesComeBackInComparatorOrder() throws SQLException {
+        for (int i = 0; i < 24; i++) {
+            NewApplication app = application("Order " + (char) ('A' + i % 5));
+            app.setRequestedAmount(1000 * (i % 4));
+            repo.createApplication(app, 1);
+        }
+        try (Connection c = Database.getConnection(); Statement st = c.createStatement()) {
+            // Trailing-zero fractions are where Instant text and time order used to disagree.
+            st.executeUpdate("UPDATE applications SET created_at = '2024-05-01T10:00:00.100000000Z' WHERE id % 3 = 0");
+            st.executeUpdate("UPDATE applications SET created_at = '2024-05-01T10:00:00.100500000Z' WHERE id % 3 = 1");
+        }
+        for (ApplicationQuery.SortKey key : ApplicationQuery.SortKey.values()) {
+            for (boolean descending : new boolean[] {false, true}) {
+                ApplicationQuery query = ApplicationQuery.NEWEST_FIRST.sortedBy(key, descending);
+                List<ApplicationRow> all = new ArrayList<>();
+                ApplicationRepository.Page page = repo.findPage(query, null, 5);
+                all.addAll(page.rows());
+                while (page.hasMore()) {
+                    page = repo.findPage(query, page.next(), 5);
+                    all.addAll(page.rows());
+                }
+                List<ApplicationRow> sorted = new ArrayList<>(all);
+                sorted.sort(query.comparator());
+                assertEquals(key + (descending ? " desc" : ""), ids(sorted), ids(all));
+            }
+        }
+    }
+
+    @Test
+    public void legacyTimestampsAreRewrittenFixedWidth() throws SQLException {
+        int id = repo.createApplication(application("Legacy"), 1);
+        try (Connection c = Database.getConnection(); Statement st = c.createStatement()) {
+            st.executeUpdate("UPDATE applications SET created_at = '2024-01-02 03:04:05',"
+                    + " updated_at = '2024-01-02T03:04:05.100Z' WHERE id = " + id);
+            Database.normalizeApplicationTimestamps(c);
+            try (ResultSet rs = st.executeQuery("SELECT created_at, updated_at FROM applications WHERE id = " + id)) {
+                rs.next();
+                assertEquals("2024-01-02T03:04:05.000000000Z", rs.getString(1));
+                assertEquals("2024-01-02T03:04:05.100000000Z", rs.getString(2));
+            }
+        }
+    }
+
+    @Test
+    public void deepPagesCostNoMoreThanTheFirst() throws SQLException {
+        // Plans cannot show this: both shapes "SEARCH ... USING INDEX". Count VM steps instead.
+        try (Connection c = DriverManager.getConnection("jdbc:sqlite:" + tmp.getRoot().toPath().resolve("deep.db"))) {
+            new SchemaMigrator(Database.MIGRATIONS).migrate(c);
+            seedLargeGroups(c, 8_000);
+            for (ApplicationQuery.SortKey key : ApplicationQuery.SortKey.values()) {
+                for (boolean descending : new boolean[] {false, true}) {
+                    ApplicationQuery query = ApplicationQuery.NEWEST_FIRST.sortedBy(key, descending);
+                    // Halfway into the second group of the low-cardinality keys.
+                    ApplicationRepository.Cursor deep = ApplicationRepository.readPage(c, query, null, 6_000).next();
+                    long first = steps(c, conn -> ApplicationRepository.readPage(conn, query, null, 50));
+                    long deeper = steps(c, conn -> ApplicationRepository.readPage(conn, query, deep, 50));
+                    assertTrue(key + " deep page took " + deeper + " steps, first page " + first, deeper <= 2 * first);
+                }
+            }
+        }
+    }
+
+    /** SQLite VM steps {@code work} runs on {@code c}: a proxy for rows visited. */
+    private static long steps(Connection c, SqlWork<?> work) throws SQLException {
+        long[] steps = new long[1];
+        ProgressHandler.setHandler(c, 1, new ProgressHandler() {
+            @Override
+            protected int progress() {
+                steps[0]++;
+                return 0;
+            }
+        });
+        try {
+            work.run(c);
+        } finally {
+            ProgressHandler.clearHandler(c);
+        }
+        return steps[0];
+    }
+
+    private static void seedLargeGroups(Connection c, int rows) throws SQLException {
+        c.setAutoCommit(false);
+        try (PreparedStatement ps = c.prepareStatement("""
+                INSERT INTO applications(application_number, borrower_type, borrower_name, borrower_id_number,
+                    product_type, requested_amount, status, created_by, created_at, updated_at)
+                VALUES(?, ?, ?, '12-3456789', ?, ?, ?, 1, ?, ?)""")) {
+            for (int i = 0; i < rows; i++) {
+                String at = ApplicationRepository.timestamp(Instant.ofEpochSecond(1_700_000_000L + i / 4));
+                ps.setString(1, "APP-DEEP-" + i);
+                ps.setString(2, i % 2 == 0 ? "SME" : "CONSUMER");
+                ps.setString(3, "Borrower " + i % 1000);
+                ps.setString(4, i % 2 == 0 ? "SME Term Loan" : "Auto Loan");
+                ps.setDouble(5, 1000 * (i % 100));
+                ps.setString(6, i % 2 == 0 ? "ANALYZED" : "APPROVED");
+                ps.setString(7, at);
+                ps.setString(8, at);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        c.commit();
+        c.setAutoCommit(true);
+        try (Statement st = c.createStatement()) {
+            st.execute("ANALYZE");
+        }
+    }
+
+    private static List<Integer> ids(List<ApplicationRow> rows) {
+        return rows.stream().map(ApplicationRow::id).toList();
+    }
+
+    static NewApplication application(String name) {
+        NewApplication app = new NewApplication();
+        app.setBorrowerType("SME");
+        app.setBorrowerName(name);
+        app.setBorrowerIdNumber("12-3456789");
+        app.setProductType("SME Term Loan");
+        app.setRequestedAmount(100_000);
+        return app;
+    }
+}
@@ -0,0 +1,86 @@
+package com.finbasics.persistence;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Closing an {@link AuditWriter} while callers are still enqueuing: every
+ * entry ends up either written or counted as dropped.
+ */
+public class AuditWriterTest {
+
+    @ClassRule
+    public static TemporaryFolder tmp = new TemporaryFolder();
+
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 2_000;
+
+    @BeforeClass
+    public static void initDatabase() {
+        Database.init(tmp.getRoot().toPath().resolve("audit.db"));
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        Database.shutdown();
+    }
+
+    @Test
+    public void closeUnderLoadLosesNothingWithBlock() throws Exception {
+        assertAccounted(AuditWriter.OverflowPolicy.BLOCK, "block");
+    }
+
+    @Test
+    public void closeUnderLoadLosesNothingWithDrop() throws Exception {
+        assertAccounted(AuditWriter.OverflowPolicy.DROP, "drop");
+    }
+
+    private static void assertAccounted(AuditWriter.OverflowPolicy policy, String action) throws Exception {
+        AuditWriter writer = new AuditWriter(64, policy);
+        AtomicLong accepted = new AtomicLong();
+        CountDownLatch started = new CountDownLatch(THREADS);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                started.countDown();
+                for (int i = 0; i < PER_THREAD; i++) {
+                    if (writer.enqueue(null, action, "entry " + i)) accepted.incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        started.await();
+        Thread.sleep(20);
+        writer.close();
+        for (Thread thread : threads) thread.join();
+
+        AuditWriter.Stats stats = writer.stats();
+        assertEquals(0, stats.failed());
+        assertEquals(THREADS * PER_THREAD, stats.written() + stats.dropped());
+        assertEquals(accepted.get(), stats.written());
+        assertEquals(stats.written(), rows(action));
+    }
+
+    private static long rows(String action) throws SQLException {
+        try (Connection c = Database.getConnection(); Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM audit_log WHERE action = '" + action + "'")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.finbasics.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Batching, savepoint isolation, commit hooks and shutdown of the single
+ * writer, on a private pool and a scratch table.
+ */
+public class DatabaseExecutorTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private ConnectionPool pool;
+    private DatabaseExecutor executor;
+
+    @Before
+    public void start() throws Exception {
+        pool = new ConnectionPool("jdbc:sqlite:" + tmp.getRoot().toPath().resolve("exec.db"),
+                new ConnectionPool.Config(4, 5000, 0, 5000));
+        executor = new DatabaseExecutor(pool);
+        await(executor.write(c -> update(c, "CREATE TABLE t (v INTEGER NOT NULL)")));
+    }
+
+    @After
+    public void stop() {
+        executor.shutdown();
+        pool.close();
+    }
+
+    @Test
+    public void aFailingWriteRollsBackOnlyItsOwnSavepoint() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<?> blocker = executor.write(c -> block(release));
+        // Queued behind the blocker, so the writer drains all three into one transaction.
+        CompletableFuture<Integer> a = executor.write(c -> update(c, "INSERT INTO t VALUES (1)"));
+        CompletableFuture<Integer> b = executor.write(c -> {
+            update(c, "INSERT INTO t VALUES (2)");
+            throw new SQLException("rejected");
+        });
+        CompletableFuture<Integer> d = executor.write(c -> update(c, "INSERT INTO t VALUES (3)"));
+        release.countDown();
+
+        assertEquals(1, (int) await(a));
+        assertEquals(1, (int) await(d));
+        assertFailsWith(b, SQLException.class);
+        await(blocker);
+        assertEquals(List.of(1, 3), values());
+    }
+
+    @Test
+    public void anErrorFailsItsWriteAndTheWriterKeepsGoing() throws Exception {
+        CompletableFuture<Integer> broken = executor.write(c -> {
+            update(c, "INSERT INTO t VALUES (7)");
+            throw new AssertionError("bug in a unit of work");
+        });
+        assertFailsWith(broken, AssertionError.class);
+
+        assertEquals(1, (int) await(executor.write(c -> update(c, "INSERT INTO t VALUES (8)"))));
+        assertEquals(List.of(8), values());
+    }
+
+    @Test
+    public void commitHooksRunBeforeTheFutureCompletesAndOnlyOnCommit() throws Exception {
+        AtomicBoolean committed = new AtomicBoolean();
+        AtomicBoolean rolledBack = new AtomicBoolean();
+        CompletableFuture<Boolean> seenAtCompletion = executor.write(c -> {
+            update(c, "INSERT INTO t VALUES (1)");
+            executor.afterCommit(() -> committed.set(true));
+            return committed.get();
+        }).thenApply(ignored -> committed.get());
+        CompletableFuture<Integer> failing = executor.write(c -> {
+            executor.afterCommit(() -> rolledBack.set(true));
+            throw new SQLException("rejected");
+        });
+
+        assertTrue(await(seenAtCompletion));
+        assertFailsWith(failing, SQLException.class);
+        assertFalse(rolledBack.get());
+    }
+
+    @Test
+    public void shutdownFinishesQueuedWritesThenRejects() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        executor.write(c -> block(release));
+        List<CompletableFuture<Integer>> queued = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int v = i;
+            queued.add(executor.write(c -> update(c, "INSERT INTO t VALUES (" + v + ")")));
+        }
+        Thread stopper = new Thread(executor::shutdown);
+        stopper.start();
+        release.countDown();
+        stopper.join();
+
+        for (CompletableFuture<Integer> f : queued) assertEquals(1, (int) await(f));
+        assertEquals(10, values().size());
+        assertFailsWith(executor.write(c -> update(c, "INSERT INTO t VALUES (99)")), SQLException.class);
+    }
+
+    /** Hold the writer until released; shutdown()'s interrupt does not cut it short. */
+    private static Void block(CountDownLatch release) {
+        while (release.getCount() > 0) {
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        }
+        return null;
+    }
+
+    private static int update(Connection c, String sql) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            return st.executeUpdate(sql);
+        }
+    }
+
+    private List<Integer> values() throws SQLException {
+        List<Integer> out = new ArrayList<>();
+        try (Connection c = pool.borrow(); Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT v FROM t ORDER BY v")) {
+            while (rs.next()) out.add(rs.getInt(1));
+        }
+        return out;
+    }
+
+    private static <T> T await(CompletableFuture<T> f) throws Exception {
+        return f.get(10, TimeUnit.SECONDS);
+    }
+
+    private static void assertFailsWith(CompletableFuture<?> f, Class<? extends Throwable> type) throws Exception {
+        try {
+            f.get(10, TimeUnit.SECONDS);
+            fail("Expected " + type.getSimpleName());
+        } catch (ExecutionException e) {
+            assertTrue("Got " + e.getCause(), type.isInstance(e.getCause()));
+        }
+    }
+}
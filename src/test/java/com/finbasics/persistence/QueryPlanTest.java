@@ -0,0 +1,205 @@
+package com.finbasics.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Runs EXPLAIN QUERY PLAN against every query the repositories issue and
+ * fails if any of them reads a whole table, or walks a whole index without an
+ * ORDER BY it serves or a LIMIT that stops it early.
+ */
+public class QueryPlanTest {
+
+    @ClassRule
+    public static TemporaryFolder tmp = new TemporaryFolder();
+
+    // "SCAN applications" is a full table scan; "SCAN applications USING [COVERING] INDEX ..." a full index walk.
+    private static final Pattern FULL_SCAN = Pattern.compile("^SCAN (TABLE )?\\w+( AS \\w+)?$");
+    private static final Pattern INDEX_WALK = Pattern.compile("^SCAN (TABLE )?\\w+( AS \\w+)? USING (COVERING )?INDEX .*");
+    private static final Pattern ORDERED_OR_LIMITED = Pattern.compile("\\b(ORDER BY|LIMIT)\\b", Pattern.CASE_INSENSITIVE);
+
+    private static final int APPLICATIONS = 5_000;
+
+    @BeforeClass
+    public static void initDatabase() throws Exception {
+        Path db = tmp.getRoot().toPath().resolve("plan.db");
+        Database.init(db);
+        // Planner statistics from a populated book, so index choice is realistic.
+        try (Connection c = Database.getConnection(); Statement st = c.createStatement()) {
+            seed(st);
+            st.execute("ANALYZE");
+        }
+    }
+
+    /** A few thousand applications across statuses and products, with their child rows. */
+    private static void seed(Statement st) throws SQLException {
+        st.execute("BEGIN");
+        st.execute("""
+                INSERT INTO users(username, password_hash, created_at)
+                WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 20)
+                SELECT 'analyst' || i, 'x', '2024-01-01T00:00:00.000000000Z' FROM n""");
+        st.execute("""
+                INSERT INTO applications(application_number, borrower_type, borrower_name, borrower_id_number,
+                    product_type, requested_amount, status, created_by, created_at, updated_at)
+                WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < %d)
+                SELECT printf('APP-2024-%%06d', i),
+                       CASE i %% 2 WHEN 0 THEN 'SME' ELSE 'CONSUMER' END,
+                       'Borrower ' || (i %% 997),
+                       printf('%%02d-%%07d', i %% 90, i),
+                       CASE i %% 8 WHEN 0 THEN 'SME Term Loan' WHEN 1 THEN 'Auto Loan' WHEN 2 THEN 'Line of Credit'
+                           WHEN 3 THEN 'Personal Loan' WHEN 4 THEN 'CRE Mortgage' WHEN 5 THEN 'Mortgage'
+                           WHEN 6 THEN 'Equipment Lease' ELSE 'Home Equity (HELOC)' END,
+                       1000 * (i %% 500),
+                       CASE i %% 6 WHEN 0 THEN 'SUBMITTED' WHEN 1 THEN 'ANALYZED' WHEN 2 THEN 'APPROVED'
+                           WHEN 3 THEN 'DECLINED' WHEN 4 THEN 'REFERRED' ELSE 'ANALYZED' END,
+                       1 + i %% 20,
+                       strftime('%%Y-%%m-%%dT%%H:%%M:%%S.000000000Z', 1700000000 + i * 600, 'unixepoch'),
+                       strftime('%%Y-%%m-%%dT%%H:%%M:%%S.000000000Z', 1700000000 + i * 600, 'unixepoch')
+                FROM n""".formatted(APPLICATIONS));
+        st.execute("""
+                INSERT INTO statement_analysis(application_id, borrower_type, dscr, credit_score, created_at)
+                SELECT id, borrower_type, 1.0 + id % 30 / 10.0, 580 + id % 240, created_at
+                FROM applications WHERE id % 3 <> 0""");
+        st.execute("""
+                INSERT INTO documents(application_id, doc_type, doc_name)
+                SELECT a.id, 'STATEMENT', 'doc-' || d.k FROM applications a,
+                    (SELECT 1 AS k UNION ALL SELECT 2 UNION ALL SELECT 3) d""");
+        st.execute("INSERT INTO tasks(application_id, description) SELECT id, 'Review' FROM applications");
+        st.execute("""
+                INSERT INTO audit_log(user_id, action, details, ts)
+                SELECT 1 + a.id % 20, 'VIEW', NULL, a.created_at FROM applications a
+                UNION ALL
+                SELECT created_by, 'SUBMIT', application_number, created_at FROM applications""");
+        st.execute("COMMIT");
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        Database.shutdown();
+    }
+
+    @Test
+    public void schemaIsAtLatestMigration() throws SQLException {
+        try (Connection c = Database.getConnection()) {
+            assertEquals(Database.MIGRATIONS.size(), SchemaMigrator.userVersion(c));
+            // A second run against a current database must be a no-op.
+            assertEquals(0, new SchemaMigrator(Database.MIGRATIONS).migrate(c));
+        }
+    }
+
+    @Test
+    public void applicationQueriesUseIndexes() throws SQLException {
+        assertNoFullScan(ApplicationRepository.FIND_ALL_SQL);
+        assertNoFullScan(ApplicationRepository.FIND_HEADER_SQL);
+        assertNoFullScan(ApplicationRepository.UPDATE_STATUS_SQL);
+        assertNoFullScan(ApplicationRepository.LATEST_CHANGE_SQL);
+        assertNoFullScan(ApplicationRepository.CHANGED_SINCE_SQL);
+    }
+
+    @Test
+    public void everyPageQueryVariantUsesIndexes() throws SQLException {
+        for (int mask = 0; mask < 4; mask++) {
+            ApplicationQuery q = ApplicationQuery.NEWEST_FIRST
+                    .withStatus((mask & 1) != 0 ? "ANALYZED" : null)
+                    .withBorrowerType((mask & 2) != 0 ? "SME" : null);
+            for (ApplicationQuery.Part part : ApplicationQuery.Part.values()) {
+                assertNoFullScan(ApplicationRepository.pageSql(q, part));
+            }
+        }
+    }
+
+    @Test
+    public void everySortKeyWalksAnIndexInKeysetOrder() throws SQLException {
+        for (ApplicationQuery.SortKey key : ApplicationQuery.SortKey.values()) {
+            for (boolean descending : new boolean[] {true, false}) {
+                ApplicationQuery q = ApplicationQuery.NEWEST_FIRST.sortedBy(key, descending);
+                for (ApplicationQuery.Part part : ApplicationQuery.Part.values()) {
+                    String sql = ApplicationRepository.pageSql(q, part);
+                    assertNoFullScan(sql);
+                    for (String step : plan(sql)) {
+                        if (step.contains("TEMP B-TREE")) fail("Sort not served by an index: " + sql + "\n  plan: " + step);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void filteredSortsUseIndexes() throws SQLException {
+        ApplicationQuery filtered = ApplicationQuery.NEWEST_FIRST
+                .withProductType("Auto Loan")
+                .withAmountRange(1000.0, 50000.0)
+                .withBorrowerNamePrefix("Ac");
+        for (ApplicationQuery.SortKey key : ApplicationQuery.SortKey.values()) {
+            for (ApplicationQuery.Part part : ApplicationQuery.Part.values()) {
+                assertNoFullScan(ApplicationRepository.pageSql(filtered.sortedBy(key, true), part));
+                assertNoFullScan(ApplicationRepository.pageSql(filtered.withStatus("ANALYZED").sortedBy(key, false), part));
+            }
+        }
+    }
+
+    @Test
+    public void applicationNumberSequenceUsesIndexes() throws SQLException {
+        assertNoFullScan(ApplicationNumberGenerator.SEED_YEAR_SQL);
+        assertNoFullScan(ApplicationNumberGenerator.RESERVE_SQL);
+    }
+
+    @Test
+    public void analysisAndUserQueriesUseIndexes() throws SQLException {
+        assertNoFullScan(StatementAnalysisRepository.FIND_BY_APPLICATION_SQL);
+        assertNoFullScan(StatementAnalysisRepository.findByApplicationIdsSql(3));
+        assertNoFullScan(ApplicationRepository.findWithAnalysisSql(3));
+        assertNoFullScan(UserRepository.FIND_BY_USERNAME_SQL);
+        assertNoFullScan(Database.ADMIN_EXISTS_SQL);
+    }
+
+    @Test
+    public void auditAndChildTableLookupsUseIndexes() throws SQLException {
+        assertNoFullScan("SELECT id FROM audit_log WHERE ts >= ? ORDER BY ts");
+        assertNoFullScan("SELECT id FROM audit_log WHERE user_id = ?");
+        assertNoFullScan("SELECT id FROM documents WHERE application_id = ?");
+        assertNoFullScan("SELECT id FROM tasks WHERE application_id = ?");
+        assertNoFullScan("SELECT id FROM applications WHERE created_by = ?");
+        assertNoFullScan("SELECT id FROM applications WHERE borrower_id_number = ?");
+    }
+
+    private static void assertNoFullScan(String sql) throws SQLException {
+        List<String> plan = plan(sql);
+        for (String step : plan) {
+            String s = step.trim();
+            if (FULL_SCAN.matcher(s).matches()) {
+                fail("Full table scan in plan for: " + sql + "\n  plan: " + plan);
+            }
+            // A whole-index walk is fine when it yields rows in ORDER BY order or a LIMIT cuts it short.
+            if (INDEX_WALK.matcher(s).matches() && !ORDERED_OR_LIMITED.matcher(sql).find()) {
+                fail("Full index walk with no ORDER BY or LIMIT in plan for: " + sql + "\n  plan: " + plan);
+            }
+        }
+    }
+
+    private static List<String> plan(String sql) throws SQLException {
+        List<String> plan = new ArrayList<>();
+        try (Connection c = Database.getConnection(); Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("EXPLAIN QUERY PLAN " + sql)) {
+            while (rs.next()) {
+                plan.add(rs.getString("detail"));
+            }
+        }
+        return plan;
+    }
+}
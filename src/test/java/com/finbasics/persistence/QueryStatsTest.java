@@ -0,0 +1,54 @@
+package com.finbasics.persistence;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Grouping and persistence of {@link QueryStats}. The slow threshold is out of
+ * reach so no plan is ever captured.
+ */
+public class QueryStatsTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private final QueryStats stats = new QueryStats(Long.MAX_VALUE / 2_000_000L, null);
+
+    @Test
+    public void chunkSizesShareOneEntry() {
+        stats.record("SELECT * FROM t WHERE id IN (?)", 1, 2, 3, 1, null);
+        stats.record("SELECT * FROM t WHERE id IN (?,?,?)", 10, 20, 30, 3, null);
+        stats.record("SELECT * FROM t WHERE id = ?", 100, 0, 0, 0, null);
+
+        List<QueryStats.Entry> entries = stats.snapshot();
+        assertEquals(2, entries.size());
+        QueryStats.Entry in = entries.get(1);
+        assertEquals("SELECT * FROM t WHERE id IN (?+)", in.fingerprint());
+        assertEquals(2, in.count());
+        assertEquals(66, in.totalNanos());
+        assertEquals(60, in.maxNanos());
+        assertEquals(4, in.rows());
+        assertEquals(0, in.slow());
+    }
+
+    @Test
+    public void saveAndLoadRoundTrip() throws IOException {
+        stats.record("SELECT a FROM t WHERE b = 1", 5, 6, 7, 2, null);
+        stats.record("SELECT \"x\ty\" FROM t", 1, 1, 1, 1, null);
+        Path file = tmp.getRoot().toPath().resolve("stats.tsv");
+        stats.save(file);
+
+        List<QueryStats.Entry> loaded = QueryStats.load(file);
+        assertEquals(2, loaded.size());
+        assertEquals(stats.snapshot().get(0), loaded.get(0));
+        // The tab inside the quoted name is flattened so the line still splits into eight fields.
+        assertEquals("SELECT \"x y\" FROM t", loaded.get(1).fingerprint());
+    }
+}
@@ -0,0 +1,46 @@
+package com.finbasics.persistence;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * {@link SqlShape#normalize} over a table of statement / shape pairs.
+ */
+public class SqlShapeTest {
+
+    private static final String[][] CASES = {
+            // literals
+            {"SELECT * FROM t WHERE id = 42", "SELECT * FROM t WHERE id = ?"},
+            {"SELECT * FROM t WHERE amount > 1.5e3", "SELECT * FROM t WHERE amount > ?"},
+            {"SELECT * FROM t WHERE name = 'O''Brien'", "SELECT * FROM t WHERE name = ?"},
+            {"SELECT * FROM t WHERE name = 'room \"1\"'", "SELECT * FROM t WHERE name = ?"},
+            {"SELECT id FROM t ORDER BY id LIMIT 50", "SELECT id FROM t ORDER BY id LIMIT ?"},
+            // whitespace and terminators
+            {"  SELECT id\n\tFROM   t ;", "SELECT id FROM t"},
+            // digits that belong to a name
+            {"SELECT col1, t2.x FROM t2", "SELECT col1, t2.x FROM t2"},
+            {"SELECT \"col 1\" FROM t WHERE \"col 1\" = 3", "SELECT \"col 1\" FROM t WHERE \"col 1\" = ?"},
+            {"SELECT `a 2`, [b 3] FROM t", "SELECT `a 2`, [b 3] FROM t"},
+            {"SELECT \"a\"\"1\" FROM t WHERE x = 7", "SELECT \"a\"\"1\" FROM t WHERE x = ?"},
+            {"SELECT \"it's 9\" FROM t", "SELECT \"it's 9\" FROM t"},
+            // variable-length lists
+            {"SELECT * FROM t WHERE id IN (?)", "SELECT * FROM t WHERE id IN (?+)"},
+            {"SELECT * FROM t WHERE id IN (1, 2, 3)", "SELECT * FROM t WHERE id IN (?+)"},
+            {"SELECT * FROM t WHERE id IN (?,?,?,?,?)", "SELECT * FROM t WHERE id IN (?+)"},
+            {"INSERT INTO t(a, b) VALUES (?, ?), (?, ?)", "INSERT INTO t(a, b) VALUES (?+)+"},
+    };
+
+    @Test
+    public void normalizesEveryCase() {
+        for (String[] c : CASES) {
+            assertEquals(c[0], c[1], SqlShape.normalize(c[0]));
+        }
+    }
+
+    @Test
+    public void unterminatedQuotesDoNotThrow() {
+        assertEquals("SELECT \"col 1", SqlShape.normalize("SELECT \"col 1"));
+        assertEquals("SELECT ?", SqlShape.normalize("SELECT 'abc"));
+    }
+}
@@ -0,0 +1,106 @@
+package com.finbasics.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.finbasics.model.ApplicationRow;
+import com.finbasics.persistence.ApplicationQuery;
+import com.finbasics.persistence.ApplicationQuery.SortKey;
+
+import org.junit.Test;
+
+/**
+ * {@link ApplicationFeed#merge} against windows sorted by amount.
+ */
+public class ApplicationFeedTest {
+
+    private static final ApplicationQuery BY_AMOUNT = ApplicationQuery.NEWEST_FIRST.sortedBy(SortKey.REQUESTED_AMOUNT, false);
+
+    @Test
+    public void insertsANewRowWhereItSorts() {
+        List<ApplicationRow> window = window(row(1, 100), row(2, 300));
+        ApplicationFeed.merge(window, List.of(row(3, 200)), BY_AMOUNT, false);
+        assertEquals(List.of(1, 3, 2), ids(window));
+    }
+
+    @Test
+    public void breaksTiesById() {
+        List<ApplicationRow> window = window(row(1, 100), row(5, 100));
+        ApplicationFeed.merge(window, List.of(row(3, 100)), BY_AMOUNT, false);
+        assertEquals(List.of(1, 3, 5), ids(window));
+
+        List<ApplicationRow> descending = window(row(5, 100), row(1, 100));
+        ApplicationFeed.merge(descending, List.of(row(3, 100)), BY_AMOUNT.sortedBy(SortKey.REQUESTED_AMOUNT, true), false);
+        assertEquals(List.of(5, 3, 1), ids(descending));
+    }
+
+    @Test
+    public void movesARowWhoseSortValueChanged() {
+        List<ApplicationRow> window = window(row(1, 100), row(2, 200), row(3, 300));
+        ApplicationFeed.merge(window, List.of(row(1, 250)), BY_AMOUNT, false);
+        assertEquals(List.of(2, 1, 3), ids(window));
+        assertEquals(250, window.get(1).requestedAmount(), 0);
+    }
+
+    @Test
+    public void replacesARowInPlace() {
+        List<ApplicationRow> window = window(row(1, 100), row(2, 200), row(3, 300));
+        ApplicationRow renamed = new ApplicationRow(2, "APP-2", "SME", "Renamed", "SME Term Loan", 200, "ANALYZED", 2);
+        ApplicationFeed.merge(window, List.of(renamed), BY_AMOUNT, false);
+        assertEquals(List.of(1, 2, 3), ids(window));
+        assertSame(renamed, window.get(1));
+    }
+
+    @Test
+    public void removesARowThatNoLongerMatches() {
+        ApplicationQuery analyzed = BY_AMOUNT.withStatus("ANALYZED");
+        List<ApplicationRow> window = window(row(1, 100), row(2, 200), row(3, 300));
+        ApplicationRow approved = new ApplicationRow(2, "APP-2", "SME", "Borrower 2", "SME Term Loan", 200, "APPROVED", 2);
+        ApplicationFeed.merge(window, List.of(approved), analyzed, false);
+        assertEquals(List.of(1, 3), ids(window));
+
+        // A new row that does not match is never added.
+        ApplicationFeed.merge(window, List.of(approved), analyzed, true);
+        assertEquals(List.of(1, 3), ids(window));
+    }
+
+    @Test
+    public void leavesRowsPastAnIncompleteWindowToPaging() {
+        List<ApplicationRow> window = window(row(1, 100), row(2, 200));
+        ApplicationFeed.merge(window, List.of(row(3, 900)), BY_AMOUNT, false);
+        assertEquals(List.of(1, 2), ids(window));
+
+        // A row that moves past the end leaves the window too.
+        ApplicationFeed.merge(window, List.of(row(1, 950)), BY_AMOUNT, false);
+        assertEquals(List.of(2), ids(window));
+
+        ApplicationFeed.merge(window, List.of(row(3, 900)), BY_AMOUNT, true);
+        assertEquals(List.of(2, 3), ids(window));
+    }
+
+    @Test
+    public void repeatedDeliveryIsANoOp() {
+        List<ApplicationRow> window = window(row(1, 100), row(2, 300));
+        List<ApplicationRow> changed = List.of(row(3, 200), row(1, 400));
+        ApplicationFeed.merge(window, changed, BY_AMOUNT, true);
+        List<ApplicationRow> once = List.copyOf(window);
+        ApplicationFeed.merge(window, changed, BY_AMOUNT, true);
+        assertEquals(once, window);
+        assertEquals(List.of(3, 2, 1), ids(window));
+    }
+
+    private static ApplicationRow row(int id, double amount) {
+        return new ApplicationRow(id, "APP-" + id, "SME", "Borrower " + id, "SME Term Loan", amount, "ANALYZED", id);
+    }
+
+    private static List<ApplicationRow> window(ApplicationRow... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+
+    private static List<Integer> ids(List<ApplicationRow> rows) {
+        return rows.stream().map(ApplicationRow::id).toList();
+    }
+}
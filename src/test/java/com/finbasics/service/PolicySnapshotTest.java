@@ -0,0 +1,111 @@
+package com.finbasics.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.finbasics.persistence.Database;
+import com.finbasics.persistence.PolicyRepository;
+import com.finbasics.service.FinancialCalculator.Status;
+import com.finbasics.service.PolicySnapshot.Metric;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * The seeded policies table compiled into a snapshot, invalid edits, and the
+ * engine following committed policy writes.
+ */
+public class PolicySnapshotTest {
+
+    @ClassRule
+    public static TemporaryFolder tmp = new TemporaryFolder();
+
+    private static final PolicyRepository repo = new PolicyRepository();
+    private static PolicySnapshot seeded;
+
+    @BeforeClass
+    public static void initDatabase() throws Exception {
+        Database.init(tmp.getRoot().toPath().resolve("policy.db"));
+        PolicyRepository.Policies policies = repo.loadAll();
+        seeded = PolicySnapshot.compile(policies.version(), policies.values());
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        Database.shutdown();
+    }
+
+    @Test
+    public void seededThresholdsAreTheOnesCompiled() {
+        assertEquals(1.25, seeded.get(PolicySnapshot.SME_DSCR_MIN), 0);
+        assertEquals(1.00, seeded.get(PolicySnapshot.SME_DSCR_FLOOR), 0);
+        assertEquals(0.45, seeded.get(PolicySnapshot.CONSUMER_DTI_MAX), 0);
+        assertEquals(0.90, seeded.get(PolicySnapshot.CONSUMER_LTV_MAX), 0);
+
+        assertEquals(Status.ACCEPTABLE, seeded.classify(Metric.DSCR, 1.25));
+        assertEquals(Status.WEAK, seeded.classify(Metric.DSCR, Math.nextDown(1.25)));
+        assertEquals(Status.WEAK, seeded.classify(Metric.DSCR, 1.00));
+        assertEquals(Status.CRITICAL, seeded.classify(Metric.DSCR, Math.nextDown(1.00)));
+        assertEquals(Status.ACCEPTABLE, seeded.classify(Metric.DTI, 0.45));
+        assertEquals(Status.CRITICAL, seeded.classify(Metric.DTI, Math.nextUp(0.45)));
+        assertEquals(Status.ACCEPTABLE, seeded.classify(Metric.LTV, 0.90));
+        assertEquals(Status.WEAK, seeded.classify(Metric.LTV, Math.nextUp(0.90)));
+        // Net margin thresholds are strict.
+        assertEquals(Status.ACCEPTABLE, seeded.classify(Metric.NET_MARGIN, 0.10));
+        assertEquals(Status.STRONG, seeded.classify(Metric.NET_MARGIN, Math.nextUp(0.10)));
+    }
+
+    @Test
+    public void tiersFollowTheGradeThresholds() {
+        assertEquals(1, seeded.smeTier(2.0, 2.0, 1.0));
+        assertEquals(4, seeded.smeTier(0.5, 1.0, 4.0));
+        // Unsecured consumers are graded out of 6 points, secured ones out of 9.
+        assertEquals(1, seeded.consumerTier(0.30, 750, 0));
+        assertEquals(2, seeded.consumerTier(0.30, 750, 0.95));
+    }
+
+    @Test
+    public void invalidValuesAreRejected() {
+        assertRejected(PolicySnapshot.SME_DSCR_MIN, "1,25");
+        assertRejected(PolicySnapshot.SME_DSCR_MIN, null);
+        // Ladders must stay in order: the minimum above the strong threshold.
+        assertRejected(PolicySnapshot.SME_DSCR_MIN, "1.75");
+        assertRejected(PolicySnapshot.CONSUMER_DTI_MAX, "0.30");
+        assertRejected(PolicySnapshot.GRADE_TIER3_MIN, "0.90");
+    }
+
+    @Test
+    public void committedWritesAreFollowedWithoutAnExplicitRefresh() throws Exception {
+        PolicyEngine.start();
+        repo.put(PolicySnapshot.SME_DSCR_MIN, "1.30");
+        awaitDscrMin(1.30);
+        // Back to the seeded value for anything else sharing the engine in this JVM.
+        repo.put(PolicySnapshot.SME_DSCR_MIN, "1.25");
+        awaitDscrMin(1.25);
+    }
+
+    private static void awaitDscrMin(double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (PolicyEngine.current().get(PolicySnapshot.SME_DSCR_MIN) != expected) {
+            assertTrue("Engine did not pick up sme.dscr.min=" + expected, System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static void assertRejected(String key, String value) {
+        Map<String, String> raw = new HashMap<>();
+        raw.put(key, value);
+        try {
+            PolicySnapshot.compile(1, raw);
+            fail(key + "=" + value + " should be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}